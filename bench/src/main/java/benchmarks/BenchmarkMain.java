@@ -0,0 +1,28 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that every score in ns/op comes with
+ * the bytes allocated per op (gc.alloc.rate.norm).
+ * The arguments are regular expressions of the benchmarks to run, e.g. "SolverBenchmark".
+ * Everything is run if there are none.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        for (String include : args)
+            options.include(include);
+        if (args.length == 0)
+            options.include("benchmarks\\..*Benchmark");
+
+        Options opt = options.addProfiler(GCProfiler.class).build();
+        new Runner(opt).run();
+    }
+
+}
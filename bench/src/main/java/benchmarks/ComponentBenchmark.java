@@ -0,0 +1,83 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the small building blocks that every solve goes through: the rule check and board
+ * encoding of Sudoku, and the lookups of SolutionCache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentBenchmark {
+
+    private String[] hard, easy;
+    private Object sudoku;
+    private byte[] solution;
+    private Object cache;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        hard = Targets.puzzles("HARD");
+        easy = Targets.puzzles("EASY");
+
+        // Only the hard puzzles are cached, the easy ones are the misses
+        cache = Targets.newCache(hard.length);
+        Object solver = Targets.newSolver("BitmaskSudoku", null);
+        for (String puzzle : hard) {
+            Targets.LOAD.invokeExact(solver, (CharSequence) puzzle);
+            boolean solved = (boolean) Targets.SOLVE.invokeExact(solver);
+            Targets.CACHE_PUT.invokeExact(cache, (CharSequence) puzzle, (String) Targets.STRINGIFY.invokeExact(solver));
+        }
+        solution = ((String) Targets.STRINGIFY.invokeExact(solver)).getBytes();
+
+        sudoku = Targets.newSolver("Sudoku", cache);
+        Targets.LOAD.invokeExact(sudoku, (CharSequence) hard[0]);
+    }
+
+    /** Checks every value of one cell, like a single step of the backtracking search. */
+    @Benchmark
+    public void isOk(Blackhole bh) throws Throwable {
+        int cell = next++ % 81;
+        for (int value = 1; value <= 9; value++)
+            bh.consume((boolean) Targets.IS_OK.invokeExact(sudoku, cell / 9, cell % 9, value));
+    }
+
+    @Benchmark
+    public String stringify() throws Throwable {
+        return (String) Targets.STRINGIFY.invokeExact(sudoku);
+    }
+
+    @Benchmark
+    public void decode() throws Throwable {
+        Targets.DECODE.invokeExact(sudoku, solution);
+    }
+
+    @Benchmark
+    public String cacheHit() throws Throwable {
+        return (String) Targets.CACHE_GET.invokeExact(cache, (CharSequence) hard[next++ % hard.length]);
+    }
+
+    @Benchmark
+    public String cacheMiss() throws Throwable {
+        return (String) Targets.CACHE_GET.invokeExact(cache, (CharSequence) easy[next++ % easy.length]);
+    }
+
+    @Benchmark
+    public Object canonicalize() throws Throwable {
+        return Targets.CANONICALIZE.invokeExact((CharSequence) hard[next++ % hard.length]);
+    }
+
+    @Benchmark
+    public byte[] pack() throws Throwable {
+        return (byte[]) Targets.PACK.invokeExact((CharSequence) hard[next++ % hard.length]);
+    }
+
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the parallel search against the sequential search it splits, one hard puzzle at a time,
+ * since how much the split gains depends a lot on the puzzle. ParallelSudoku runs on the common
+ * ForkJoinPool with the default split depth.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelBenchmark {
+
+    @Param({"BitmaskSudoku", "ParallelSudoku"})
+    public String engine;
+
+    /** The index of the puzzle in Puzzles.HARD. */
+    @Param({"0", "1", "2", "3", "4", "5", "6"})
+    public int puzzle;
+
+    private Object solver;
+    private String board;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solver = Targets.newSolver(engine, null);
+        board = Targets.puzzles("HARD")[puzzle];
+    }
+
+    @Benchmark
+    public boolean solve() throws Throwable {
+        Targets.LOAD.invokeExact(solver, (CharSequence) board);
+        return (boolean) Targets.SOLVE.invokeExact(solver);
+    }
+
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times solve() of every engine on the same corpora of puzzles.
+ * Every call solves the next puzzle of the corpus, so the score is the average over the corpus.
+ * Loading the puzzle is part of the time, but is tiny compared to solving it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+
+    @Param({"Sudoku", "IterativeSudoku", "BitmaskSudoku", "DancingLinks", "ParallelSudoku"})
+    public String engine;
+
+    @Param({"EASY", "HARD", "PATHOLOGICAL"})
+    public String corpus;
+
+    private Object solver;
+    private String[] puzzles;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Sudoku gets a cache that keeps nothing, or every puzzle after the first round would be a cache hit
+        solver = Targets.newSolver(engine, engine.equals("Sudoku") ? Targets.newCache(0) : null);
+        puzzles = Targets.puzzles(corpus);
+    }
+
+    @Benchmark
+    public boolean solve() throws Throwable {
+        Targets.LOAD.invokeExact(solver, (CharSequence) puzzles[next]);
+        next = (next + 1) % puzzles.length;
+        return (boolean) Targets.SOLVE.invokeExact(solver);
+    }
+
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Handles to the classes that are benchmarked.
+ *
+ * JMH won't generate code for benchmarks in the default package, and classes in a named package
+ * can't refer to the default package where the solver lives, so everything is reached through
+ * method handles. They are static final, so the JIT inlines them like ordinary calls.
+ * The types are erased to Object so that the benchmarks don't need the solver classes at compile time.
+ */
+final class Targets {
+
+    static final MethodHandle LOAD, SOLVE, STRINGIFY;
+    static final MethodHandle IS_OK, DECODE;
+    static final MethodHandle CACHE_GET, CACHE_PUT, CANONICALIZE, PACK;
+
+    private static final MethodHandle IN_MEMORY;
+    private static final Class<?> SOLUTION_CACHE;
+
+    static {
+        try {
+            Class<?> solver = find("SudokuSolver"), sudoku = find("Sudoku"), canonicalizer = find("Canonicalizer");
+            SOLUTION_CACHE = find("SolutionCache");
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            LOAD = lookup.findVirtual(solver, "load", MethodType.methodType(void.class, CharSequence.class))
+                    .asType(MethodType.methodType(void.class, Object.class, CharSequence.class));
+            SOLVE = lookup.findVirtual(solver, "solve", MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+            STRINGIFY = lookup.findVirtual(solver, "stringify", MethodType.methodType(String.class))
+                    .asType(MethodType.methodType(String.class, Object.class));
+
+            MethodHandles.Lookup inSudoku = MethodHandles.privateLookupIn(sudoku, lookup);
+            IS_OK = inSudoku.findVirtual(sudoku, "isOk", MethodType.methodType(boolean.class, int.class, int.class, int.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class, int.class, int.class, int.class));
+            DECODE = inSudoku.findVirtual(sudoku, "decode", MethodType.methodType(void.class, byte[].class))
+                    .asType(MethodType.methodType(void.class, Object.class, byte[].class));
+
+            MethodHandles.Lookup inCache = MethodHandles.privateLookupIn(SOLUTION_CACHE, lookup);
+            CACHE_GET = lookup.findVirtual(SOLUTION_CACHE, "get", MethodType.methodType(String.class, CharSequence.class))
+                    .asType(MethodType.methodType(String.class, Object.class, CharSequence.class));
+            CACHE_PUT = lookup.findVirtual(SOLUTION_CACHE, "put", MethodType.methodType(void.class, CharSequence.class, String.class))
+                    .asType(MethodType.methodType(void.class, Object.class, CharSequence.class, String.class));
+            IN_MEMORY = lookup.findStatic(SOLUTION_CACHE, "inMemory", MethodType.methodType(SOLUTION_CACHE, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            PACK = inCache.findStatic(SOLUTION_CACHE, "pack", MethodType.methodType(byte[].class, CharSequence.class));
+
+            Class<?> transform = find("Canonicalizer$Transform");
+            CANONICALIZE = MethodHandles.privateLookupIn(canonicalizer, lookup)
+                    .findStatic(canonicalizer, "canonicalize", MethodType.methodType(transform, CharSequence.class))
+                    .asType(MethodType.methodType(Object.class, CharSequence.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Targets() {}
+
+    private static Class<?> find(String name) throws ClassNotFoundException {
+        return Class.forName(name, false, Targets.class.getClassLoader());
+    }
+
+    /** Creates a solver with its no-argument constructor, or a Sudoku with the given cache. */
+    static Object newSolver(String engine, Object cache) {
+        try {
+            Class<?> type = find(engine);
+            if (cache != null)
+                return type.getConstructor(SOLUTION_CACHE).newInstance(cache);
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(String.format("Unknown engine: %s\n", engine), e);
+        }
+    }
+
+    static Object newCache(int capacity) {
+        try {
+            return IN_MEMORY.invokeExact(capacity);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Returns one of the corpora of Puzzles by name. */
+    static String[] puzzles(String corpus) {
+        try {
+            Class<?> puzzles = find("Puzzles");
+            return (String[]) MethodHandles.privateLookupIn(puzzles, MethodHandles.lookup())
+                    .findStaticGetter(puzzles, corpus, String[].class).invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(String.format("Unknown corpus: %s\n", corpus), e);
+        }
+    }
+
+}
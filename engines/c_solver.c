@@ -117,11 +117,60 @@ void stringify(const int board[9][9]) {
 }
 
 
+/* Checks that the board is 81 digits, and that no givens break the rules. */
+int readboard(const char *line, int board[9][9]) {
+    if (strlen(line) != 81)
+        return 0;
+    for (int i = 0; i < 81; i++) {
+        if (line[i] < '0' || line[i] > '9')
+            return 0;
+        board[i / 9][i % 9] = 0;
+    }
+    for (int i = 0; i < 81; i++) {
+        int value = line[i] - 48;
+        if (value != 0 && !valid(board, i / 9, i % 9, value))
+            return 0;
+        board[i / 9][i % 9] = value;
+    }
+    return 1;
+}
+
+
+/* Reads one board per line from stdin and writes one line per board to stdout:
+ * the solution, or X if the board has no solution or can't be read.
+ * This way a single process can solve any number of boards. */
+int stream() {
+    char line[128];
+    int board[9][9];
+
+    while (fgets(line, sizeof(line), stdin)) {
+        int toolong = strchr(line, '\n') == NULL && !feof(stdin);
+        if (toolong) {
+            // Skip the rest of the line, so there's still one answer per line
+            int ch;
+            while ((ch = getchar()) != '\n' && ch != EOF)
+                ;
+        }
+        line[strcspn(line, "\r\n")] = 0;
+        if (!toolong && readboard(line, board) && solve(board, 0, 0))
+            stringify(board);
+        else
+            putchar('X');
+        putchar('\n');
+        fflush(stdout);
+    }
+    return 0;
+}
+
+
 int main(int argc, char *argv[]) {
 
     srand(1337);
     int board[9][9];
 
+    if (argc > 1 && strcmp(argv[1], "-") == 0)
+        return stream();
+
     if (argc > 1)
         fillboard(argv[1], board);
     else {
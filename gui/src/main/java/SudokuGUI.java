@@ -17,35 +17,39 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 public class SudokuGUI extends Application {
 
-    static Cell[][] cells;
-    static Sudoku sudoku;
-    static Label status;
+    private Cell[][] cells;
+    /** The board of this window, which is only solved by one SolverTask at a time. */
+    private final SudokuSolver sudoku = new Sudoku();
+    /** Follows the cells as they're edited, so the board is checked while the user types. */
+    private final BoardValidator validator = new BoardValidator();
+    private Label status;
 
     static final String STYLE_SHEET = "style.css";
-    static List<Square> randomNumbers;
-    static List<Square> invalidNumbers;
+    private Set<Square> randomNumbers;
 
     static final Font FONT_BOLD = Font.font ("Courier", FontWeight.BOLD, 25),
                       FONT_NORMAL = Font.font ("Courier", 25);
 
     static final Background BACKGROUND_RED = new Background(new BackgroundFill(Color.RED,
                                                 CornerRadii.EMPTY, Insets.EMPTY)),
+                            BACKGROUND_ORANGE = new Background(new BackgroundFill(Color.ORANGE,
+                                                CornerRadii.EMPTY, Insets.EMPTY)),
                             BACKGROUND_NORMAL = new Background(new BackgroundFill(Color.TRANSPARENT,
                                     CornerRadii.EMPTY, Insets.EMPTY));
-    static SolverTask solverTask;
-    static double timer;
+    private SolverTask solverTask;
+    /** Passes the changes of the search on to the cells, while solving. */
+    private BoardDeltas deltas;
+    private double timer;
 
     @Override
     public void start(Stage stage) {
-        sudoku = new Sudoku();
-        randomNumbers = new ArrayList<>();
+        JmxMetrics.register();      // Shows the solver in JConsole
+        randomNumbers = new HashSet<>();
 
         VBox frame = new VBox();
         GridPane board = new GridPane();
@@ -56,6 +60,7 @@ public class SudokuGUI extends Application {
                 Cell cell = new Cell(r, c);
                 cells[r][c] = cell;
                 board.add(cell, c, r);
+                cell.textProperty().addListener((obs, oldValue, newValue) -> edited(cell));
 
                 // These IDS are used in the css to create the 3x3 grid
                 if (r % 3 == 0 && r != 0) {
@@ -143,8 +148,9 @@ public class SudokuGUI extends Application {
     }
 
     /** Callback from clear-button. */
-    private static void clear() {
+    private void clear() {
         Function clearUI = () -> {
+            stopWatching();
             sudoku.clear();
             updateUI();
             randomNumbers.clear();
@@ -163,7 +169,7 @@ public class SudokuGUI extends Application {
         }
     }
 
-    private static void resetFonts() {
+    private void resetFonts() {
         for (int r = 0; r < 9; r++) {
             for (int c = 0; c < 9; c++) {
                 cells[r][c].setFont(FONT_NORMAL);
@@ -172,30 +178,53 @@ public class SudokuGUI extends Application {
         }
     }
 
-    /** Callback form the solve-button. */
-    private static void solve() {
-        List<Square> invalidNumbers = copyUIBoard();
-        if (invalidNumbers.size() == 0) {
+    /** Callback form the solve-button. The board has been checked while it was typed,
+     *  so an invalid board is turned down right away. */
+    private void solve() {
+        if (validator.isValid()) {
+            copyUIBoard();
             startSolving();
-        }
-        else {
+        } else if (validator.conflicts() > 0) {
             status.setText("Invalid board");
-            colorRed(invalidNumbers);
-            sudoku.clear();
+        } else {
+            status.setText("Failed to solve sudoku");
         }
-
     }
 
-    private static void colorRed(List<Square> list) {
-        for(int i = 0; i < list.size(); i++){
-            cells[list.get(i).row][list.get(i).col].setBackground(BACKGROUND_RED);
+    /** Callback from the cells, when their text changes. */
+    private void edited(Cell cell) {
+        String text = cell.getText();
+        int value;
+        if (text.matches("[1-9]"))
+            value = text.charAt(0) - '0';
+        else if (text.equals(" "))
+            value = 0;
+        else
+            return;     // The cell is about to clean up what was typed
+
+        int index = cell.row * 9 + cell.col;
+        validator.set(index, value);
+        // The search never breaks the rules, and its dead ends would only flicker
+        if (deltas == null) {
+            highlight(index);
+            for (int peer : BoardValidator.peers(index))
+                highlight(peer);
         }
     }
 
+    /** Colors a cell red if it breaks the rules, and orange if it's empty and nothing fits in it. */
+    private void highlight(int index) {
+        Background background = validator.isConflict(index) ? BACKGROUND_RED
+                : validator.hasNoCandidates(index) ? BACKGROUND_ORANGE : BACKGROUND_NORMAL;
+        Cell cell = cells[index / 9][index % 9];
+        if (cell.getBackground() != background)
+            cell.setBackground(background);
+    }
+
     /** Fills a list with squares that the sudoku-board has just filled with random numbers.
      *  This is needed because these squares will be ignored when later copying to UI-board to the sudoku.
      */
-    private static void fillRandomNumbers() {
+    private void fillRandomNumbers() {
         for (int r = 0; r < 9; r++) {
             for (int c = 0; c < 9; c++) {
                 int res = sudoku.getCell(r, c);
@@ -207,38 +236,24 @@ public class SudokuGUI extends Application {
         }
     }
 
-    /** Copies the UI-cells to the sudoku-board.
-     * randomNumbers contain numbers that have already been generated and filled by the sudoku,
-     * so these are ignored. */
-    private static List<Square> copyUIBoard() {
-        invalidNumbers = new ArrayList<>();
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                if (!randomNumbers.contains(new Square(r, c))) {
-                    String value = cells[r][c].getText();
-                    if (!value.equals(" ")) {
-                        int cell = Integer.parseInt(value);
-                        try {
-                            sudoku.setCell(r, c, cell);
-                        } catch (IllegalArgumentException e) {
-                            // If this exception occurs, the board is invalid according to the sudoku-rules.
-                            // Exit quick and inform user that it's not solvable.
-                            invalidNumbers.add(new Square(r, c));
-                        }
-                    }
-                }
-            }
-        }
-        return invalidNumbers;
+    /** Copies the UI-cells to the sudoku-board, which the validator already has and knows to be valid. */
+    private void copyUIBoard() {
+        sudoku.load(validator.stringify());
     }
 
-    /** Starts the solver-thread and updates the status-label accordingly. */
-    private static void startSolving() {
+    /** Starts the solver-thread and updates the status-label accordingly.
+     *  The cells follow the search while it runs, at most once per frame. */
+    private void startSolving() {
+        deltas = new BoardDeltas(this::showCell, Platform::runLater, BoardDeltas.DEFAULT_FRAME_NANOS);
+        sudoku.setBoardListener(deltas);
+
         solverTask = new SolverTask();
         solverTask.setOnSucceeded(solvable -> {
+            stopWatching();
+            // Shows the solution, or the board as it was if the search failed
+            updateUI();
             if (((Task<Boolean>) solvable.getSource()).getValue()) {
                 status.setText(String.format("Solved in %.3f seconds", timer / 1000));
-                updateUI();
             } else {
                 status.setText("Failed to solve sudoku");
             }
@@ -249,16 +264,33 @@ public class SudokuGUI extends Application {
         status.setText("Solving...");
     }
 
+    /** Stops showing the search, changes that are on their way to the cells are dropped. */
+    private void stopWatching() {
+        if (deltas != null) {
+            deltas.close();
+            sudoku.setBoardListener(null);
+            deltas = null;
+            for (int cell = 0; cell < 81; cell++)
+                highlight(cell);
+        }
+    }
+
     /** Updates all the cells according to the sudoku-board. */
-    private static void updateUI() {
+    private void updateUI() {
         for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                String value = String.valueOf(sudoku.getCell(r, c));
-                cells[r][c].setText(value);
-            }
+            for (int c = 0; c < 9; c++)
+                showCell(r * 9 + c, sudoku.getCell(r, c));
         }
     }
 
+    /** Shows a value in a cell, if it isn't shown already. */
+    private void showCell(int cell, int value) {
+        String text = value == 0 ? " " : String.valueOf(value);
+        Cell field = cells[cell / 9][cell % 9];
+        if (!field.getText().equals(text))
+            field.setText(text);
+    }
+
 
 
     static class Cell extends TextField {
@@ -316,9 +348,14 @@ public class SudokuGUI extends Application {
             }
             return false;
         }
+
+        @Override
+        public int hashCode() {
+            return row * 9 + col;
+        }
     }
 
-    static class SolverTask extends Task {
+    class SolverTask extends Task {
         /**
          * This class helps us run the solve()-method at the sudoku-board in a different thread.
          * The Task class is JavaFX's way of doing it.
@@ -336,18 +373,14 @@ public class SudokuGUI extends Application {
 
         /**
          * This method stops the backend-engine by calling stopSolve() on the engine.
-         * However, since this is not in the SudokuSolver-interface, the method might
-         * not exist, depending on the solver-engine implementation.
+         * Not every solver-engine can be stopped, depending on the implementation.
          */
         void stopSolve() {
             try {
-                Method stopSolve = Sudoku.class.getDeclaredMethod("stopSolve");
-                stopSolve.invoke(sudoku);
+                sudoku.stopSolve();
             }
             // Not much to do... Just wait for backend to finish.
-            catch (NoSuchMethodException e) {}
-            catch (IllegalAccessException e) {}
-            catch (InvocationTargetException e) {}
+            catch (UnsupportedOperationException e) {}
         }
 
         /** Start the thread as daemon, to ensure that it doesn't continue running after main thread is closed */
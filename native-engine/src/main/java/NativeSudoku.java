@@ -0,0 +1,100 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Sudoku-solver that calls solve() of the C engine in /engines in-process, through the
+ * Foreign Function & Memory API, instead of talking to it over a pipe like {@link ExternalEngine}.
+ * The board is handed over as an off-heap int[9][9], so nothing is encoded as text.
+ *
+ * The shared library is built with make in /engines, and is looked up at the path of the system
+ * property {@value #LIBRARY_PROPERTY}, or at {@value #DEFAULT_LIBRARY}. Without the library
+ * this is just a {@link BitmaskSudoku}. Everything but solve() is always done by BitmaskSudoku,
+ * and a native solve can't be stopped with stopSolve().
+ */
+public class NativeSudoku extends BitmaskSudoku {
+
+    public static final String LIBRARY_PROPERTY = "sudoku.native.library";
+    public static final String DEFAULT_LIBRARY = "sudoku-solver/engines/libc_solver.so";
+
+    /** int solve(int board[9][9], int row, int col) */
+    private static final FunctionDescriptor SOLVE =
+            FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT);
+
+    /** Loaded the first time a NativeSudoku is created with the default library. */
+    private static class Default {
+        static final MethodHandle SOLVE = load(Paths.get(System.getProperty(LIBRARY_PROPERTY, DEFAULT_LIBRARY)));
+    }
+
+    /** Null if the library is missing. */
+    private final MethodHandle solve;
+    private final MemorySegment board;
+
+    public NativeSudoku() {
+        this(Default.SOLVE);
+    }
+
+    /** Creates a sudoku that uses the given library, which might not exist. */
+    public NativeSudoku(Path library) {
+        this(load(library));
+    }
+
+    private NativeSudoku(MethodHandle solve) {
+        super("native");
+        this.solve = solve;
+        this.board = solve == null ? null : Arena.ofAuto().allocate(81 * 4, 4);
+    }
+
+    /** Finds solve() in the library, the library stays loaded as long as the JVM runs.
+     *  @return the handle to solve(), or null if the library doesn't exist or can't be loaded. */
+    private static MethodHandle load(Path library) {
+        if (!Files.exists(library))
+            return null;
+        try {
+            SymbolLookup lookup = SymbolLookup.libraryLookup(library, Arena.global());
+            return Linker.nativeLinker().downcallHandle(lookup.find("solve").orElseThrow(), SOLVE);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /** Returns true if solve() runs in the C engine, false if it falls back to BitmaskSudoku. */
+    public boolean isNative() {
+        return solve != null;
+    }
+
+    @Override
+    public boolean solve() {
+        if (solve == null)
+            return super.solve();
+
+        for (int i = 0; i < 81; i++)
+            board.setAtIndex(ValueLayout.JAVA_INT, i, getCell(i / 9, i % 9));
+
+        int ok;
+        long t0 = System.nanoTime();
+        try {
+            ok = (int) solve.invokeExact(board, 0, 0);
+        } catch (Throwable e) {
+            throw new IllegalStateException("The native engine failed", e);
+        }
+        Metrics.solved("native", System.nanoTime() - t0);
+        if (ok == 0)
+            return false;
+
+        for (int i = 0; i < 81; i++) {
+            if (getCell(i / 9, i % 9) == 0)
+                setCell(i / 9, i % 9, board.getAtIndex(ValueLayout.JAVA_INT, i));
+        }
+        return true;
+    }
+
+}
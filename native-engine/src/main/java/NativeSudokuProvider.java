@@ -0,0 +1,19 @@
+/** Registers {@link NativeSudoku} as the engine "native", if the library can be loaded. */
+public class NativeSudokuProvider implements EngineRegistry.Provider {
+
+    @Override
+    public String name() {
+        return "native";
+    }
+
+    @Override
+    public SudokuSolver create() {
+        return new NativeSudoku();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return new NativeSudoku().isNative();
+    }
+
+}
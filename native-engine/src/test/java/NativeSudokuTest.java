@@ -0,0 +1,59 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class NativeSudokuTest {
+
+    /** Looks for engines/libc_solver.so in the working directory and its parents. */
+    private static Path findLibrary() {
+        for (Path dir = Paths.get("").toAbsolutePath(); dir != null; dir = dir.getParent()) {
+            Path candidate = dir.resolve("engines/libc_solver.so");
+            if (Files.exists(candidate))
+                return candidate;
+        }
+        return null;
+    }
+
+    @org.junit.jupiter.api.Test
+    void solveNative() {
+        Path library = findLibrary();
+        assumeTrue(library != null, "engines/libc_solver.so is not built");
+
+        NativeSudoku sudoku = new NativeSudoku(library);
+        assertTrue(sudoku.isNative());
+        for (String puzzle : Puzzles.EASY) {
+            sudoku.load(puzzle);
+            assertTrue(sudoku.solve());
+            assertEquals(PuzzleFixtures.solutionOf(puzzle), sudoku.stringify());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void noSolutionNative() {
+        Path library = findLibrary();
+        assumeTrue(library != null, "engines/libc_solver.so is not built");
+
+        NativeSudoku sudoku = new NativeSudoku(library);
+        sudoku.load(PuzzleFixtures.UNSOLVABLE);
+        assertFalse(sudoku.solve());
+        assertEquals(PuzzleFixtures.UNSOLVABLE, sudoku.stringify());
+    }
+
+    @org.junit.jupiter.api.Test
+    void fallback() {
+        NativeSudoku sudoku = new NativeSudoku(Paths.get("no/such/library.so"));
+        assertFalse(sudoku.isNative());
+        sudoku.load(Puzzles.HARD[0]);
+        assertTrue(sudoku.solve());
+        assertEquals(PuzzleFixtures.solutionOf(Puzzles.HARD[0]), sudoku.stringify());
+    }
+
+    /** The engine is found through META-INF/services, even when the default library isn't there. */
+    @org.junit.jupiter.api.Test
+    void registered() {
+        assertTrue(EngineRegistry.shared().create("native") instanceof NativeSudoku);
+    }
+}
@@ -0,0 +1,189 @@
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sudoku-solver that picks the engine for every puzzle it solves with an {@link EngineSelector},
+ * and tells the selector how long the engine took. The board itself is kept in a
+ * {@link BitmaskSudoku}, which also does everything but solve().
+ *
+ * An engine that hasn't solved anything in the bucket of the puzzle yet only gets {@value #EXPLORE_MILLIS} ms,
+ * if it has bounded solves, so that trying a slow engine never costs more than that. If it doesn't finish,
+ * the time it got is recorded and the search of BitmaskSudoku solves the puzzle.
+ *
+ * Like the other solvers, an AdaptiveSudoku is used by one thread at a time, but many of them
+ * can share a selector and learn from each other.
+ */
+public class AdaptiveSudoku implements SudokuSolver {
+
+    /** How long an engine that is tried on a new bucket may take. */
+    static final long EXPLORE_MILLIS = 100;
+
+    private final EngineRegistry registry;
+    private final EngineSelector selector;
+    private final List<String> engines;
+    private final Map<String, SudokuSolver> solvers = new HashMap<>();
+    private final BitmaskSudoku board = new BitmaskSudoku();
+    private String lastEngine;
+    private volatile SudokuSolver current;
+    /** Cleared by stopSolve(), and set again when a solve ends or a board is loaded. */
+    private volatile boolean running = true;
+
+    public AdaptiveSudoku() {
+        this(EngineRegistry.shared(), EngineSelector.shared());
+    }
+
+    public AdaptiveSudoku(EngineRegistry registry, EngineSelector selector) {
+        this.registry = registry;
+        this.selector = selector;
+        this.engines = registry.names();
+    }
+
+    @Override
+    public boolean solve() {
+        int bucket = EngineSelector.bucket(board);
+        String engine = selector.choose(bucket, engines);
+        SudokuSolver solver = solvers.computeIfAbsent(engine, registry::create);
+        lastEngine = engine;
+
+        boolean explore = Double.isNaN(selector.averageNanos(bucket, engine));
+        solver.load(board.stringify());
+        start(solver);
+        long t0 = System.nanoTime();
+        SolveResult explored = null;
+        boolean solved;
+        try {
+            if (explore)
+                explored = tryBounded(solver);
+            solved = explored != null ? explored.isSolved() : solver.solve();
+            if (running)        // A stopped solve says nothing about the engine
+                selector.record(bucket, engine, System.nanoTime() - t0);
+            if (solved) {
+                board.load(solver.stringify());
+            } else if (explored != null && explored.outcome() == SolveResult.Outcome.TIMED_OUT && running) {
+                start(board);
+                solved = board.solve();
+            }
+        } finally {
+            current = null;
+            running = true;
+        }
+        return solved;
+    }
+
+    /** Solves with the explore deadline, or returns null if the engine has no bounded solves. */
+    private static SolveResult tryBounded(SudokuSolver solver) {
+        try {
+            return solver.solve(Duration.ofMillis(EXPLORE_MILLIS));
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /** {@inheritDoc}
+     *  An engine without bounded solves leaves the puzzle to the search of {@link BitmaskSudoku}. */
+    @Override
+    public SolveResult solve(long nodeBudget) {
+        return solveBounded(solver -> solver.solve(nodeBudget));
+    }
+
+    /** {@inheritDoc}
+     *  An engine without bounded solves leaves the puzzle to the search of {@link BitmaskSudoku}. */
+    @Override
+    public SolveResult solve(Duration deadline) {
+        return solveBounded(solver -> solver.solve(deadline));
+    }
+
+    /** Like solve(), but a solve that times out isn't recorded, since it says little about the engine. */
+    private SolveResult solveBounded(Function<SudokuSolver, SolveResult> bounded) {
+        int bucket = EngineSelector.bucket(board);
+        String engine = selector.choose(bucket, engines);
+        SudokuSolver solver = solvers.computeIfAbsent(engine, registry::create);
+        lastEngine = engine;
+
+        solver.load(board.stringify());
+        start(solver);
+        SolveResult result;
+        try {
+            result = bounded.apply(solver);
+        } catch (UnsupportedOperationException e) {
+            start(board);
+            return bounded.apply(board);
+        } finally {
+            current = null;
+            running = true;
+        }
+        if (result.outcome() != SolveResult.Outcome.TIMED_OUT)
+            selector.record(bucket, engine, result.elapsed().toNanos());
+
+        if (result.isSolved())
+            board.load(solver.stringify());
+        return result;
+    }
+
+    /** Makes the solver the one that stopSolve() stops, and passes on a stop that came before. */
+    private void start(SudokuSolver solver) {
+        current = solver;
+        if (!running) {
+            try {
+                solver.stopSolve();
+            } catch (UnsupportedOperationException e) {}
+        }
+    }
+
+    /** Stops the engine that is solving the board, or the next one if it hasn't started yet.
+     *  This should be called from a different thread. */
+    @Override
+    public void stopSolve() {
+        running = false;
+        SudokuSolver solver = current;
+        if (solver != null)
+            solver.stopSolve();
+    }
+
+    /** Returns the name of the engine that solved the last puzzle, or null if nothing was solved yet. */
+    public String lastEngine() {
+        return lastEngine;
+    }
+
+    @Override
+    public int solveMultiple(int limit, Consumer<SudokuSolver> onSolution) {
+        return board.solveMultiple(limit, onSolution == null ? null : solution -> onSolution.accept(this));
+    }
+
+    @Override
+    public void clear() {
+        board.clear();
+        running = true;
+    }
+
+    @Override
+    public void setCell(int row, int col, int val) throws IllegalArgumentException {
+        board.setCell(row, col, val);
+    }
+
+    @Override
+    public int getCell(int row, int col) throws IllegalArgumentException {
+        return board.getCell(row, col);
+    }
+
+    @Override
+    public void load(CharSequence puzzle) throws IllegalArgumentException {
+        board.load(puzzle);
+        running = true;
+    }
+
+    @Override
+    public String stringify() {
+        return board.stringify();
+    }
+
+    /** Returns a visual representation of the board */
+    public String toString() {
+        return board.toString();
+    }
+
+}
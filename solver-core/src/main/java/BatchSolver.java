@@ -0,0 +1,184 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Solves large amounts of puzzles on all cores.
+ *
+ * Puzzles are given in the 81-character format of {@link SudokuSolver#load(CharSequence)}, or as
+ * {@link PackedBoard}s, and are handed out to the threads in chunks. Every thread has its own
+ * {@link BitmaskSudoku} that is reused for all the puzzles it solves, so nothing but the solutions
+ * is allocated per puzzle.
+ */
+public class BatchSolver implements AutoCloseable {
+
+    /** Returned instead of a solution for puzzles that have no solution or break the rules of sudoku. */
+    public static final String NO_SOLUTION = "X";
+
+    private static final int CHUNK_SIZE = 256;
+
+    /** Called with every solved puzzle, tagged with its index in the input. */
+    public interface Listener {
+        /** Called from the solver threads, so this must be thread-safe. */
+        void solved(long index, String puzzle, String solution);
+    }
+
+    /** Like Listener, but for packed boards. The solution is null if the puzzle has no solution. */
+    public interface PackedListener {
+        /** Called from the solver threads, so this must be thread-safe. */
+        void solved(long index, PackedBoard puzzle, PackedBoard solution);
+    }
+
+    /** Solves one puzzle of a chunk and reports it, returns true if it was solved. */
+    private interface Task<T> {
+        boolean solve(long index, T puzzle);
+    }
+
+    /** Throughput of a call to solve. */
+    public static final class Stats {
+        public final long puzzles, solved, nanos;
+
+        Stats(long puzzles, long solved, long nanos) {
+            this.puzzles = puzzles;
+            this.solved = solved;
+            this.nanos = nanos;
+        }
+
+        public double puzzlesPerSecond() {
+            return nanos == 0 ? 0 : puzzles * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d puzzles (%d solved) in %.3f s, %.0f puzzles/s",
+                    puzzles, solved, nanos / 1e9, puzzlesPerSecond());
+        }
+    }
+
+    private final int threads;
+    private final ExecutorService executor;
+    private final ThreadLocal<BitmaskSudoku> solvers = ThreadLocal.withInitial(BitmaskSudoku::new);
+
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchSolver(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "batch-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Solves a puzzle with the calling thread's solver.
+     *  @return true if it was solved, and the solution is on the solver. */
+    private boolean solve(CharSequence puzzle) {
+        BitmaskSudoku solver = solvers.get();
+        try {
+            solver.load(puzzle);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return solver.solve();
+    }
+
+    /**
+     * Solves all the puzzles of the stream and passes the solutions on to the listener as soon
+     * as they are found, which is not necessarily in input order.
+     * At most a few chunks per thread are read from the stream ahead of the solvers,
+     * so the stream can be much larger than the memory.
+     */
+    public Stats solve(Stream<String> puzzles, Listener listener) throws InterruptedException {
+        return run(puzzles, (index, puzzle) -> {
+            boolean solved = solve(puzzle);
+            listener.solved(index, puzzle, solved ? solvers.get().stringify() : NO_SOLUTION);
+            return solved;
+        });
+    }
+
+    /**
+     * Like {@link #solve(Stream, Listener)}, but the puzzles and solutions are packed boards,
+     * which take a fraction of the memory of strings.
+     */
+    public Stats solvePacked(Stream<PackedBoard> puzzles, PackedListener listener) throws InterruptedException {
+        return run(puzzles, (index, puzzle) -> {
+            boolean solved = solve(puzzle);
+            listener.solved(index, puzzle, solved ? PackedBoard.of(solvers.get()) : null);
+            return solved;
+        });
+    }
+
+    private <T> Stats run(Stream<T> puzzles, Task<T> task) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(2 * threads);
+        AtomicLong solved = new AtomicLong();
+        long count = 0;
+        long t0 = System.nanoTime();
+
+        Iterator<T> it = puzzles.iterator();
+        while (it.hasNext()) {
+            Object[] chunk = new Object[CHUNK_SIZE];
+            int size = 0;
+            while (size < CHUNK_SIZE && it.hasNext())
+                chunk[size++] = it.next();
+
+            final long first = count;
+            final int chunkSize = size;
+            count += size;
+
+            inFlight.acquire();
+            executor.execute(() -> {
+                try {
+                    for (int i = 0; i < chunkSize; i++) {
+                        @SuppressWarnings("unchecked")
+                        T puzzle = (T) chunk[i];
+                        if (task.solve(first + i, puzzle))
+                            solved.incrementAndGet();
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        // Wait for the last chunks
+        inFlight.acquire(2 * threads);
+        inFlight.release(2 * threads);
+        return new Stats(count, solved.get(), System.nanoTime() - t0);
+    }
+
+    /**
+     * Solves all the puzzles in the list.
+     * @return the solutions in the same order as the puzzles, with {@link #NO_SOLUTION} for those that
+     *         can't be solved.
+     */
+    public String[] solve(List<String> puzzles) throws InterruptedException {
+        String[] solutions = new String[puzzles.size()];
+        solve(puzzles.stream(), (index, puzzle, solution) -> solutions[(int) index] = solution);
+        return solutions;
+    }
+
+    /**
+     * Solves all the packed puzzles in the array.
+     * @return the solutions in the same order as the puzzles, with null for those that can't be solved.
+     */
+    public PackedBoard[] solve(PackedBoard[] puzzles) throws InterruptedException {
+        PackedBoard[] solutions = new PackedBoard[puzzles.length];
+        solvePacked(Arrays.stream(puzzles), (index, puzzle, solution) -> solutions[(int) index] = solution);
+        return solutions;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+}
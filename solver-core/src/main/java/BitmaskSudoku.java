@@ -0,0 +1,401 @@
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Sudoku-solver that keeps track of which digits are used in every row, column and box
+ * as bitmasks. Bit (d - 1) of a mask is set if the digit d is used in that unit.
+ *
+ * Instead of rescanning the board for every candidate like {@link Sudoku} does, the candidates
+ * of a cell are found with a single bitwise operation, and placing or removing a digit is O(1).
+ * The search fills in naked and hidden singles before it branches, and always branches on the
+ * empty cell with the fewest candidates.
+ */
+public class BitmaskSudoku implements SudokuSolver {
+
+    static final int ALL_DIGITS = 0x1FF;
+
+    /** Row, column and box of every cell, indexed by cell (row * 9 + col). */
+    static final int[] ROW = new int[81], COL = new int[81], BOX = new int[81];
+
+    /** The 27 units (9 rows, 9 columns, 9 boxes) as lists of cell-indices. */
+    static final int[][] UNITS = new int[27][9];
+
+    static {
+        for (int i = 0; i < 81; i++) {
+            int r = i / 9, c = i % 9, b = (r / 3) * 3 + c / 3;
+            ROW[i] = r;
+            COL[i] = c;
+            BOX[i] = b;
+            UNITS[r][c] = i;
+            UNITS[9 + c][r] = i;
+            UNITS[18 + b][(r % 3) * 3 + c % 3] = i;
+        }
+    }
+
+    private final int[] cells = new int[81];
+    private final int[] rows = new int[9], cols = new int[9], boxes = new int[9];
+
+    /** Cells placed by the search, in order, so that they can be undone. */
+    private final int[] trail = new int[81];
+    private int trailSize;
+
+    /** Reused by stringify(). */
+    private final char[] text = new char[81];
+
+    /** State of the current search. */
+    private int limit, found;
+    private Consumer<SudokuSolver> onSolution;
+
+    private final SearchLimit limits;
+
+    public BitmaskSudoku() {
+        this("bitmask");
+    }
+
+    /** @param engine the name the solves are reported under to {@link Metrics}, or null to not report them. */
+    BitmaskSudoku(String engine) {
+        limits = new SearchLimit(engine);
+    }
+
+    /** Cleared by stopSolve(), and set again when a search ends or a board is loaded, so that a stop
+     *  that comes just before a search still stops it. */
+    private volatile boolean running = true;
+    /** If the last search was stopped. */
+    private boolean stopped;
+
+    /** Returns the digits (as a bitmask) that can still be put in the given cell. */
+    int candidates(int cell) {
+        return ~(rows[ROW[cell]] | cols[COL[cell]] | boxes[BOX[cell]]) & ALL_DIGITS;
+    }
+
+    private void place(int cell, int value) {
+        int bit = 1 << (value - 1);
+        cells[cell] = value;
+        rows[ROW[cell]] |= bit;
+        cols[COL[cell]] |= bit;
+        boxes[BOX[cell]] |= bit;
+    }
+
+    private void remove(int cell) {
+        int bit = ~(1 << (cells[cell] - 1));
+        cells[cell] = 0;
+        rows[ROW[cell]] &= bit;
+        cols[COL[cell]] &= bit;
+        boxes[BOX[cell]] &= bit;
+    }
+
+    /** Places a value and remembers it on the trail. */
+    void push(int cell, int value) {
+        place(cell, value);
+        trail[trailSize++] = cell;
+    }
+
+    /** Undoes everything placed since the trail had the given size. */
+    private void undo(int mark) {
+        while (trailSize > mark)
+            remove(trail[--trailSize]);
+    }
+
+    /**
+     * Fills in naked singles (cells with one candidate) and hidden singles (digits with only one
+     * possible cell in a unit) until nothing changes.
+     * @return false if a contradiction was found.
+     */
+    boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int cell = 0; cell < 81; cell++) {
+                if (cells[cell] != 0)
+                    continue;
+                int mask = candidates(cell);
+                if (mask == 0)
+                    return false;
+                if ((mask & (mask - 1)) == 0) {
+                    push(cell, Integer.numberOfTrailingZeros(mask) + 1);
+                    limits.propagated();
+                    changed = true;
+                }
+            }
+
+            for (int[] unit : UNITS) {
+                int once = 0, twice = 0, used = 0;
+                for (int cell : unit) {
+                    if (cells[cell] != 0) {
+                        used |= 1 << (cells[cell] - 1);
+                    } else {
+                        int mask = candidates(cell);
+                        twice |= once & mask;
+                        once |= mask;
+                    }
+                }
+                if ((once | used) != ALL_DIGITS)
+                    return false;       // Some digit can't be put anywhere in this unit
+
+                int hidden = once & ~twice & ~used;
+                while (hidden != 0) {
+                    int bit = hidden & -hidden;
+                    hidden ^= bit;
+                    for (int cell : unit) {
+                        if (cells[cell] == 0 && (candidates(cell) & bit) != 0) {
+                            push(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                            limits.propagated();
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Returns the empty cell with the fewest candidates, or -1 if the board is full. */
+    int mostConstrainedCell() {
+        int best = -1, bestCount = 10;
+        for (int cell = 0; cell < 81 && bestCount > 2; cell++) {
+            if (cells[cell] == 0) {
+                int count = Integer.bitCount(candidates(cell));
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Copies the board of another solver to this one. */
+    void copyFrom(BitmaskSudoku other) {
+        System.arraycopy(other.cells, 0, cells, 0, 81);
+        System.arraycopy(other.rows, 0, rows, 0, 9);
+        System.arraycopy(other.cols, 0, cols, 0, 9);
+        System.arraycopy(other.boxes, 0, boxes, 0, 9);
+        trailSize = 0;
+    }
+
+    /** Returns the number of nodes the last search explored. */
+    long nodes() {
+        return limits.nodes();
+    }
+
+    /** Checked by the search before every step. Overridden by solvers that share the search
+     *  with other solvers and must stop when those are stopped. */
+    boolean isRunning() {
+        return running;
+    }
+
+    /** Recursive method that searches for solutions.
+     *  When it returns false, the board is left as it was before the call.
+     *  @return true if the search should stop, either because enough solutions were found
+     *  or because the solver was stopped or ran out of budget. */
+    private boolean search(int depth) {
+        if (!isRunning() || !limits.node(depth))
+            return true;
+
+        int mark = trailSize;
+        if (!propagate()) {
+            undo(mark);
+            return false;
+        }
+
+        // Branch on the most constrained cell
+        int best = mostConstrainedCell();
+        if (best == -1) {
+            found++;
+            if (onSolution != null)
+                onSolution.accept(this);
+            if (found >= limit)
+                return true;
+            undo(mark);
+            return false;
+        }
+
+        int propagated = trailSize;
+        int mask = candidates(best);
+        while (mask != 0) {
+            int bit = mask & -mask;
+            mask ^= bit;
+            push(best, Integer.numberOfTrailingZeros(bit) + 1);
+            if (search(depth + 1))
+                return true;
+            undo(propagated);
+            limits.backtrack();
+        }
+
+        undo(mark);
+        return false;
+    }
+
+    /** Searches for at most limit solutions. The last solution found is left on the board,
+     *  everything else placed by the search is undone. */
+    private int run(int limit, Consumer<SudokuSolver> onSolution) {
+        this.limit = limit;
+        this.onSolution = onSolution;
+        found = 0;
+        trailSize = 0;
+        if (limit > 0)
+            search(0);
+        stopped = !isRunning();
+        running = true;
+        this.onSolution = null;
+        return found;
+    }
+
+    @Override
+    public boolean solve() {
+        limits.start();
+        boolean solved = solveOnce();
+        limits.finish();
+        return solved;
+    }
+
+    private boolean solveOnce() {
+        if (run(1, null) == 1)
+            return true;
+        undo(0);        // The search might have been stopped half-way
+        return false;
+    }
+
+    /** {@inheritDoc}
+     *  This is always solved by the search of this class, also in subclasses that solve() some other way. */
+    @Override
+    public SolveResult solve(long nodeBudget) {
+        limits.start(nodeBudget, null);
+        return limits.result(solveOnce() ? stringify() : null, stopped);
+    }
+
+    /** {@inheritDoc}
+     *  This is always solved by the search of this class, also in subclasses that solve() some other way. */
+    @Override
+    public SolveResult solve(Duration deadline) {
+        limits.start(Long.MAX_VALUE, deadline);
+        return limits.result(solveOnce() ? stringify() : null, stopped);
+    }
+
+    @Override
+    public int solveMultiple(int limit, Consumer<SudokuSolver> onSolution) {
+        limits.start();
+        int count = run(limit, onSolution);
+        undo(0);
+        return count;
+    }
+
+    /** Stops the current attempt to solve the board, or the next one if it hasn't started yet.
+     *  This should be called from a different thread. */
+    @Override
+    public void stopSolve() {
+        running = false;
+    }
+
+    /** Ensures that the given row, col are within 0-8. */
+    private boolean outOfBounds(int row, int col) {
+        return row < 0 || row > 8 || col < 0 || col > 8;
+    }
+
+    /** Clears the entire sudoku board using indices 0-8 instead of 1-9 */
+    @Override
+    public void clear() {
+        for (int i = 0; i < 81; i++)
+            cells[i] = 0;
+        for (int i = 0; i < 9; i++) {
+            rows[i] = 0;
+            cols[i] = 0;
+            boxes[i] = 0;
+        }
+        trailSize = 0;
+        running = true;
+    }
+
+    @Override
+    public void setCell(int row, int col, int val) throws IllegalArgumentException {
+        if (outOfBounds(row, col) || val < 0 || val > 9)
+            throw new IllegalArgumentException(String.format("Failed to put %s at (%s, %s)!\n", val, row, col));
+
+        int cell = row * 9 + col;
+        int old = cells[cell];
+        if (old != 0)
+            remove(cell);
+        if (val == 0)
+            return;
+
+        if ((candidates(cell) & (1 << (val - 1))) == 0) {
+            if (old != 0)
+                place(cell, old);
+            throw new IllegalArgumentException(String.format("Failed to put %s at (%s, %s)!\n", val, row, col));
+        }
+        place(cell, val);
+    }
+
+    @Override
+    public int getCell(int row, int col) throws IllegalArgumentException {
+        if (outOfBounds(row, col))
+            throw new IllegalArgumentException(String.format("Failed to read at (%s, %s)\n", row, col));
+        return cells[row * 9 + col];
+    }
+
+    @Override
+    public void load(CharSequence puzzle) throws IllegalArgumentException {
+        if (puzzle.length() != 81)
+            throw new IllegalArgumentException(String.format("Board must be 81 characters, was %s\n", puzzle.length()));
+        clear();
+        for (int cell = 0; cell < 81; cell++) {
+            char ch = puzzle.charAt(cell);
+            if (ch == '0' || ch == '.')
+                continue;
+            int value = ch - '0';
+            if (value < 1 || value > 9)
+                throw new IllegalArgumentException(String.format("Invalid character '%s' at %s\n", ch, cell));
+            if ((candidates(cell) & (1 << (value - 1))) == 0)
+                throw new IllegalArgumentException(String.format("Failed to put %s at (%s, %s)!\n", value, ROW[cell], COL[cell]));
+            place(cell, value);
+        }
+    }
+
+    /**
+     * Like {@link #load(CharSequence)}, but reads the 81 characters as ASCII straight from a buffer,
+     * and returns false instead of throwing if they're not a valid board. Nothing is allocated.
+     * @param offset the index of the first cell in the buffer, the position of the buffer isn't used.
+     */
+    boolean load(ByteBuffer buffer, int offset) {
+        clear();
+        for (int cell = 0; cell < 81; cell++) {
+            int ch = buffer.get(offset + cell);
+            if (ch == '0' || ch == '.')
+                continue;
+            int value = ch - '0';
+            if (value < 1 || value > 9 || (candidates(cell) & (1 << (value - 1))) == 0)
+                return false;
+            place(cell, value);
+        }
+        return true;
+    }
+
+    /** Puts the board as 81 ASCII digits at the position of the buffer, like {@link #stringify()}. */
+    void write(ByteBuffer buffer) {
+        for (int cell = 0; cell < 81; cell++)
+            buffer.put((byte) ('0' + cells[cell]));
+    }
+
+    @Override
+    public String stringify() {
+        for (int cell = 0; cell < 81; cell++)
+            text[cell] = (char) ('0' + cells[cell]);
+        return new String(text);
+    }
+
+    /** Returns a visual representation of the board */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < 9; r++) {
+            sb.append("\n");
+            for (int c = 0; c < 9; c++) {
+                sb.append(String.format(" %s ", cells[r * 9 + c]));
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,81 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Passes the changes of a board from the solving thread on to another thread, such as the JavaFX
+ * application thread, without flooding it.
+ *
+ * The solver only writes the new value of a cell and marks it as changed. At most once per frame a task
+ * is handed to the executor, which passes the latest value of every cell that changed since the last
+ * task on to the target. Cells that change many times in a frame are only passed on once, and cells
+ * that didn't change aren't passed on at all.
+ */
+public final class BoardDeltas implements BoardListener {
+
+    /** 60 frames per second. */
+    public static final long DEFAULT_FRAME_NANOS = 1_000_000_000L / 60;
+
+    private final BoardListener target;
+    private final Executor executor;
+    private final long frameNanos;
+
+    private final AtomicIntegerArray values = new AtomicIntegerArray(81);
+    /** One bit per cell that changed since the last task, in two words. */
+    private final AtomicLongArray changed = new AtomicLongArray(2);
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long lastTask = System.nanoTime() - Long.MAX_VALUE / 2;
+    private volatile boolean closed;
+
+    /**
+     * @param target gets the changes, on the thread of the executor.
+     * @param executor runs the tasks that pass on the changes, for example Platform::runLater.
+     */
+    public BoardDeltas(BoardListener target, Executor executor, long frameNanos) {
+        this.target = target;
+        this.executor = executor;
+        this.frameNanos = frameNanos;
+    }
+
+    @Override
+    public void cellChanged(int cell, int value) {
+        values.set(cell, value);
+        int word = cell >>> 6;
+        long bit = 1L << (cell & 63);
+        if ((changed.get(word) & bit) == 0)
+            changed.getAndAccumulate(word, bit, (a, b) -> a | b);
+        if (!scheduled.get() && System.nanoTime() - lastTask >= frameNanos)
+            schedule();
+    }
+
+    /** Passes on the changes that are left right away, without waiting for the next frame. */
+    public void flush() {
+        schedule();
+    }
+
+    /** Stops passing on changes, also those that are scheduled already. */
+    public void close() {
+        closed = true;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true))
+            executor.execute(this::pass);
+    }
+
+    /** Runs on the thread of the executor. */
+    private void pass() {
+        lastTask = System.nanoTime();
+        scheduled.set(false);
+        for (int word = 0; word < 2; word++) {
+            long bits = changed.getAndSet(word, 0);
+            while (bits != 0 && !closed) {
+                int cell = word * 64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                target.cellChanged(cell, values.get(cell));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+/**
+ * Is told about every cell a solver fills in or clears while it searches, see
+ * {@link SudokuSolver#setBoardListener(BoardListener)}.
+ */
+public interface BoardListener {
+
+    /**
+     * Called on the solving thread, so it must be fast.
+     * @param cell the index of the cell, row * 9 + col.
+     * @param value the new value of the cell, 0 if it was cleared.
+     */
+    void cellChanged(int cell, int value);
+
+}
@@ -0,0 +1,132 @@
+/**
+ * Keeps track of which cells of a board break the rules while the board is edited, one cell at a time.
+ *
+ * For every row, column and box it counts how many times each digit is used, so an edit only touches
+ * the three units of the cell, and whether a cell is in conflict, or is empty without any candidates
+ * left, is answered from the counts of its units. The number of such cells is updated for the edited
+ * cell and its 20 peers, which are the only cells an edit can affect.
+ */
+public final class BoardValidator {
+
+    /** The 20 cells that share a row, column or box with every cell. */
+    static final int[][] PEERS = new int[81][20];
+
+    static {
+        for (int cell = 0; cell < 81; cell++) {
+            int n = 0;
+            for (int other = 0; other < 81; other++) {
+                if (other != cell && (BitmaskSudoku.ROW[other] == BitmaskSudoku.ROW[cell]
+                        || BitmaskSudoku.COL[other] == BitmaskSudoku.COL[cell]
+                        || BitmaskSudoku.BOX[other] == BitmaskSudoku.BOX[cell]))
+                    PEERS[cell][n++] = other;
+            }
+        }
+    }
+
+    private final int[] values = new int[81];
+    /** How many times every digit is used in every unit: rows 0-8, columns 9-17, boxes 18-26. */
+    private final int[][] counts = new int[27][10];
+    /** Bit d is set if the digit d is used in the unit. */
+    private final int[] used = new int[27];
+    private int conflicts, dead;
+
+    /**
+     * Changes a cell, which may break the rules.
+     * @param value 1-9, or 0 to clear the cell.
+     * @throws IllegalArgumentException if the cell or the value is out of range.
+     */
+    public void set(int cell, int value) {
+        if (cell < 0 || cell > 80 || value < 0 || value > 9)
+            throw new IllegalArgumentException(String.format("Failed to put %s at %s!\n", value, cell));
+        if (values[cell] == value)
+            return;
+
+        count(cell, -1);
+        int old = values[cell];
+        if (old != 0)
+            add(cell, old, -1);
+        values[cell] = value;
+        if (value != 0)
+            add(cell, value, 1);
+        count(cell, 1);
+    }
+
+    /** Adds or removes the cell and its peers from the counts of bad cells. */
+    private void count(int cell, int sign) {
+        countCell(cell, sign);
+        for (int peer : PEERS[cell])
+            countCell(peer, sign);
+    }
+
+    private void countCell(int cell, int sign) {
+        if (isConflict(cell))
+            conflicts += sign;
+        if (hasNoCandidates(cell))
+            dead += sign;
+    }
+
+    private void add(int cell, int value, int delta) {
+        addToUnit(BitmaskSudoku.ROW[cell], value, delta);
+        addToUnit(9 + BitmaskSudoku.COL[cell], value, delta);
+        addToUnit(18 + BitmaskSudoku.BOX[cell], value, delta);
+    }
+
+    private void addToUnit(int unit, int value, int delta) {
+        counts[unit][value] += delta;
+        if (counts[unit][value] == 0)
+            used[unit] &= ~(1 << value);
+        else
+            used[unit] |= 1 << value;
+    }
+
+    public int get(int cell) {
+        return values[cell];
+    }
+
+    /** Returns true if the digit in the cell is also in its row, column or box. */
+    public boolean isConflict(int cell) {
+        int value = values[cell];
+        return value != 0 && (counts[BitmaskSudoku.ROW[cell]][value] > 1
+                || counts[9 + BitmaskSudoku.COL[cell]][value] > 1
+                || counts[18 + BitmaskSudoku.BOX[cell]][value] > 1);
+    }
+
+    /** Returns true if the cell is empty and every digit is used in its row, column or box. */
+    public boolean hasNoCandidates(int cell) {
+        return values[cell] == 0 && (used[BitmaskSudoku.ROW[cell]] | used[9 + BitmaskSudoku.COL[cell]]
+                | used[18 + BitmaskSudoku.BOX[cell]]) == 0x3FE;
+    }
+
+    /** Returns the cells whose state may change when the given cell is edited, not counting the cell itself. */
+    public static int[] peers(int cell) {
+        return PEERS[cell].clone();
+    }
+
+    /** Returns true if no cell is in conflict and every empty cell has a candidate. */
+    public boolean isValid() {
+        return conflicts == 0 && dead == 0;
+    }
+
+    public int conflicts() {
+        return conflicts;
+    }
+
+    /** Returns the number of empty cells without candidates. */
+    public int deadCells() {
+        return dead;
+    }
+
+    public void clear() {
+        for (int cell = 0; cell < 81; cell++)
+            set(cell, 0);
+    }
+
+    /** Returns the board as 81 digits, with 0 for empty cells, like {@link SudokuSolver#stringify()}. */
+    public String stringify() {
+        char[] text = new char[81];
+        for (int cell = 0; cell < 81; cell++)
+            text[cell] = (char) ('0' + values[cell]);
+        return new String(text);
+    }
+
+}
@@ -0,0 +1,268 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds a canonical form of a board, so that boards that are the same puzzle in disguise
+ * share one entry in the solution cache.
+ *
+ * Two boards are the same puzzle if one can be turned into the other by relabelling the digits,
+ * transposing the board, swapping bands (rows of boxes) or stacks (columns of boxes), and swapping
+ * rows within a band or columns within a stack. The canonical form is the smallest board, read
+ * row by row, that any of those transformations can give, with the digits numbered in the order
+ * they first appear.
+ *
+ * Trying all 3 359 232 arrangements of rows and columns for every lookup would be far too slow.
+ * Instead rows, columns, bands and stacks are first ordered by signatures that don't change under
+ * the transformations (how many clues they have, and how those clues relate to the other rows,
+ * columns, boxes and digits), and only the arrangements that agree with that order are tried.
+ * Very symmetric boards, where too many arrangements have the same signatures, are left as they are,
+ * which only means that they miss the cache when they're disguised.
+ */
+final class Canonicalizer {
+
+    /** Maximum number of arrangements tried before giving up on a board. */
+    private static final int MAX_ARRANGEMENTS = 4096;
+    private static final int ROUNDS = 3;
+
+    private Canonicalizer() {}
+
+    /** A transformation of a board, and the canonical board it gives. */
+    static final class Transform {
+        private final boolean transposed;
+        /** Row i of the canonical board is row rows[i] of the (transposed) board, likewise for columns. */
+        private final int[] rows, cols;
+        /** Digit d of the board is digits[d] in the canonical board, 0 stays 0. */
+        private final int[] digits;
+        private final String canonical;
+
+        private Transform(boolean transposed, int[] rows, int[] cols, int[] digits, String canonical) {
+            this.transposed = transposed;
+            this.rows = rows;
+            this.cols = cols;
+            this.digits = digits;
+            this.canonical = canonical;
+        }
+
+        /** Returns the canonical form of the board this transform was made for. */
+        String board() {
+            return canonical;
+        }
+
+        /** Applies the transform to another board with the same layout, such as a solution. */
+        String apply(CharSequence board) {
+            char[] out = new char[81];
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++) {
+                    int from = transposed ? cols[c] * 9 + rows[r] : rows[r] * 9 + cols[c];
+                    out[r * 9 + c] = (char) ('0' + digits[board.charAt(from) - '0']);
+                }
+            }
+            return new String(out);
+        }
+
+        /** Turns a board in canonical form back to the layout of the original board. */
+        String invert(CharSequence canonical) {
+            int[] inverse = new int[10];
+            for (int d = 0; d <= 9; d++)
+                inverse[digits[d]] = d;
+
+            char[] out = new char[81];
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++) {
+                    int to = transposed ? cols[c] * 9 + rows[r] : rows[r] * 9 + cols[c];
+                    out[to] = (char) ('0' + inverse[canonical.charAt(r * 9 + c) - '0']);
+                }
+            }
+            return new String(out);
+        }
+    }
+
+    /** Finds the canonical form of an 81-character board. */
+    static Transform canonicalize(CharSequence board) {
+        int[] grid = new int[81], transposed = new int[81];
+        for (int i = 0; i < 81; i++) {
+            grid[i] = board.charAt(i) - '0';
+            transposed[(i % 9) * 9 + i / 9] = grid[i];
+        }
+
+        List<int[]> rowOrders = new ArrayList<>(), colOrders = new ArrayList<>();
+        List<int[]> tRowOrders = new ArrayList<>(), tColOrders = new ArrayList<>();
+        long count = arrangements(grid, rowOrders, colOrders)
+                + arrangements(transposed, tRowOrders, tColOrders);
+        if (count > MAX_ARRANGEMENTS) {
+            int[] identity = {0, 1, 2, 3, 4, 5, 6, 7, 8};
+            return new Transform(false, identity, identity, new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, board.toString());
+        }
+
+        int[] best = new int[81], candidate = new int[81];
+        best[0] = Integer.MAX_VALUE;
+        Transform result = null;
+        for (int t = 0; t < 2; t++) {
+            int[] g = t == 0 ? grid : transposed;
+            List<int[]> rs = t == 0 ? rowOrders : tRowOrders, cs = t == 0 ? colOrders : tColOrders;
+            for (int[] rows : rs) {
+                for (int[] cols : cs) {
+                    if (relabel(g, rows, cols, candidate, best)) {
+                        System.arraycopy(candidate, 0, best, 0, 81);
+                        result = new Transform(t == 1, rows, cols, null, null);
+                    }
+                }
+            }
+        }
+
+        // Number the digits in the order they first appear, and the missing digits after them
+        int[] digits = new int[10];
+        int[] g = result.transposed ? transposed : grid;
+        int next = 1;
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int d = g[result.rows[r] * 9 + result.cols[c]];
+                if (d != 0 && digits[d] == 0)
+                    digits[d] = next++;
+            }
+        }
+        for (int d = 1; d <= 9; d++) {
+            if (digits[d] == 0)
+                digits[d] = next++;
+        }
+
+        char[] canonical = new char[81];
+        for (int i = 0; i < 81; i++)
+            canonical[i] = (char) ('0' + best[i]);
+        return new Transform(result.transposed, result.rows, result.cols, digits, new String(canonical));
+    }
+
+    /**
+     * Writes the arranged and relabelled grid to out, but stops as soon as it's clear that it's
+     * larger than best.
+     * @return true if the arrangement is smaller than best, and out holds all of it.
+     */
+    private static boolean relabel(int[] grid, int[] rows, int[] cols, int[] out, int[] best) {
+        int[] digits = new int[10];
+        int next = 1;
+        boolean smaller = false;
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int d = grid[rows[r] * 9 + cols[c]];
+                if (d != 0) {
+                    if (digits[d] == 0)
+                        digits[d] = next++;
+                    d = digits[d];
+                }
+                int i = r * 9 + c;
+                out[i] = d;
+                if (!smaller) {
+                    if (d > best[i])
+                        return false;
+                    if (d < best[i])
+                        smaller = true;
+                }
+            }
+        }
+        return smaller;
+    }
+
+    /**
+     * Finds the orders of rows and columns that agree with their signatures.
+     * @return the number of arrangements, i.e. row orders times column orders.
+     */
+    private static long arrangements(int[] grid, List<int[]> rowOrders, List<int[]> colOrders) {
+        long[] rowSig = new long[9], colSig = new long[9], boxSig = new long[9], digitSig = new long[10];
+        for (int i = 0; i < 81; i++) {
+            int d = grid[i];
+            if (d != 0) {
+                rowSig[i / 9]++;
+                colSig[i % 9]++;
+                boxSig[(i / 27) * 3 + (i % 9) / 3]++;
+                digitSig[d]++;
+            }
+        }
+
+        // Refine the signatures with the signatures of everything each clue is connected to
+        for (int round = 0; round < ROUNDS; round++) {
+            long[] rows = rowSig.clone(), cols = colSig.clone(), boxes = boxSig.clone(), digits = digitSig.clone();
+            for (int i = 0; i < 81; i++) {
+                int d = grid[i];
+                if (d == 0)
+                    continue;
+                int r = i / 9, c = i % 9, b = (r / 3) * 3 + c / 3;
+                rows[r] += mix(colSig[c] * 31 + boxSig[b] * 17 + digitSig[d]);
+                cols[c] += mix(rowSig[r] * 31 + boxSig[b] * 17 + digitSig[d]);
+                boxes[b] += mix(rowSig[r] * 31 + colSig[c] * 17 + digitSig[d]);
+                digits[d] += mix(rowSig[r] * 31 + colSig[c] * 17 + boxSig[b]);
+            }
+            rowSig = mixAll(rows);
+            colSig = mixAll(cols);
+            boxSig = mixAll(boxes);
+            digitSig = mixAll(digits);
+        }
+
+        long rowCount = orders(rowSig, rowOrders, MAX_ARRANGEMENTS);
+        long colCount = orders(colSig, colOrders, MAX_ARRANGEMENTS);
+        return rowCount * colCount;
+    }
+
+    /**
+     * Finds the orders of the 9 lines (rows or columns) where bands are sorted by the signatures
+     * of their lines, and the lines in every band by their own signature. Lines or bands with
+     * the same signature can come in any order, so all of those orders are listed.
+     * Nothing is listed if there are more than max orders.
+     * @return the number of orders.
+     */
+    private static long orders(long[] lineSig, List<int[]> orders, int max) {
+        long[] bandSig = new long[3];
+        for (int line = 0; line < 9; line++)
+            bandSig[line / 3] += mix(lineSig[line]);
+
+        List<int[]> bandOrders = sorted(bandSig, new int[] {0, 1, 2});
+        List<List<int[]>> lineOrders = new ArrayList<>();
+        long count = bandOrders.size();
+        for (int band = 0; band < 3; band++) {
+            long[] keys = new long[3];
+            for (int k = 0; k < 3; k++)
+                keys[k] = lineSig[band * 3 + k];
+            lineOrders.add(sorted(keys, new int[] {band * 3, band * 3 + 1, band * 3 + 2}));
+            count *= lineOrders.get(band).size();
+        }
+        if (count > max)
+            return count;
+
+        for (int[] bands : bandOrders) {
+            for (int[] first : lineOrders.get(bands[0])) {
+                for (int[] second : lineOrders.get(bands[1])) {
+                    for (int[] third : lineOrders.get(bands[2])) {
+                        orders.add(new int[] {first[0], first[1], first[2], second[0], second[1], second[2],
+                                third[0], third[1], third[2]});
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Lists the orders of three items sorted by key, where items with the same key can come in any order.
+     *  The keys are indexed by position in items. */
+    private static List<int[]> sorted(long[] keys, int[] items) {
+        int[][] permutations = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        List<int[]> result = new ArrayList<>();
+        for (int[] p : permutations) {
+            if (keys[p[0]] <= keys[p[1]] && keys[p[1]] <= keys[p[2]])
+                result.add(new int[] {items[p[0]], items[p[1]], items[p[2]]});
+        }
+        return result;
+    }
+
+    private static long[] mixAll(long[] values) {
+        for (int i = 0; i < values.length; i++)
+            values[i] = mix(values[i]);
+        return values;
+    }
+
+    /** The finalizer of SplitMix64, which spreads the bits of a value over the whole long. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,321 @@
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Sudoku-solver that treats the sudoku as an exact cover problem, and solves it with
+ * Knuth's Algorithm X using dancing links.
+ *
+ * Every possible placement (cell, digit) is a row in the matrix, and every row covers four
+ * constraints: the cell is filled, and the digit is used once in its row, column and box.
+ * The matrix is built once when the solver is created. Covering and uncovering columns
+ * restores it completely, so it is reused by every call to solve().
+ */
+public class DancingLinks implements SudokuSolver {
+
+    private static final int COLUMNS = 4 * 81;
+    private static final int ROWS = 9 * 81;
+    private static final int ROOT = 0;
+
+    /** The links of every node. Node 0 is the root, nodes 1-324 are the column headers. */
+    private final int[] left, right, up, down, column;
+    /** Number of rows left in every column, indexed by header node. */
+    private final int[] size;
+
+    private final int[] cells = new int[81];
+    private final int[] rows = new int[9], cols = new int[9], boxes = new int[9];
+
+    /** The rows picked by the search, one for every depth. */
+    private final int[] solution = new int[81];
+
+    private int givens, limit, found;
+    private Consumer<SudokuSolver> onSolution;
+
+    private final SearchLimit limits = new SearchLimit("dancing-links");
+
+    /** Cleared by stopSolve(), and set again when a search ends or a board is loaded, so that a stop
+     *  that comes just before a search still stops it. */
+    private volatile boolean running = true;
+    /** If the last search was stopped. */
+    private boolean stopped;
+
+    public DancingLinks() {
+        int nodes = 1 + COLUMNS + 4 * ROWS;
+        left = new int[nodes];
+        right = new int[nodes];
+        up = new int[nodes];
+        down = new int[nodes];
+        column = new int[nodes];
+        size = new int[nodes];
+
+        for (int c = 0; c <= COLUMNS; c++) {
+            left[c] = c == 0 ? COLUMNS : c - 1;
+            right[c] = c == COLUMNS ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        for (int row = 0; row < ROWS; row++) {
+            int cell = row / 9, digit = row % 9;
+            int first = firstNode(row);
+            int[] headers = {
+                    1 + cell,
+                    1 + 81 + BitmaskSudoku.ROW[cell] * 9 + digit,
+                    1 + 162 + BitmaskSudoku.COL[cell] * 9 + digit,
+                    1 + 243 + BitmaskSudoku.BOX[cell] * 9 + digit
+            };
+            for (int i = 0; i < 4; i++) {
+                int node = first + i, header = headers[i];
+                left[node] = first + (i + 3) % 4;
+                right[node] = first + (i + 1) % 4;
+                column[node] = header;
+                up[node] = up[header];
+                down[node] = header;
+                down[up[header]] = node;
+                up[header] = node;
+                size[header]++;
+            }
+        }
+    }
+
+    /** Returns the first node of the given row, which is the node of its cell-constraint. */
+    private static int firstNode(int row) {
+        return 1 + COLUMNS + 4 * row;
+    }
+
+    /** Returns the row of the given node. */
+    private static int rowOf(int node) {
+        return (node - 1 - COLUMNS) / 4;
+    }
+
+    private void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+
+    /** Covers all the columns of a row, i.e. picks that row as part of the solution. */
+    private void select(int node) {
+        for (int j = node; ; ) {
+            cover(column[j]);
+            j = right[j];
+            if (j == node)
+                break;
+        }
+    }
+
+    /** Reverts {@link #select(int)}. */
+    private void deselect(int node) {
+        for (int j = left[node]; ; j = left[j]) {
+            uncover(column[j]);
+            if (j == node)
+                break;
+        }
+    }
+
+    /** Recursive method that searches for solutions.
+     *  @return true if the search should stop, either because enough solutions were found
+     *  or because the solver was stopped or ran out of budget. */
+    private boolean search(int depth) {
+        if (!running || !limits.node(depth - givens))
+            return true;
+
+        if (right[ROOT] == ROOT)
+            return foundSolution(depth);
+
+        // Pick the column with the fewest rows left
+        int c = right[ROOT], best = c;
+        for (; c != ROOT && size[best] > 1; c = right[c]) {
+            if (size[c] < size[best])
+                best = c;
+        }
+        if (size[best] == 0)
+            return false;
+
+        boolean done = false;
+        cover(best);
+        for (int r = down[best]; r != best && !done; r = down[r]) {
+            solution[depth] = r;
+            for (int j = right[r]; j != r; j = right[j])
+                cover(column[j]);
+            done = search(depth + 1);
+            for (int j = left[r]; j != r; j = left[j])
+                uncover(column[j]);
+            if (!done)
+                limits.backtrack();
+        }
+        uncover(best);
+        return done;
+    }
+
+    /** Writes the solution to the board and passes it on to the consumer, if any. */
+    private boolean foundSolution(int depth) {
+        found++;
+        for (int i = givens; i < depth; i++) {
+            int row = rowOf(solution[i]);
+            cells[row / 9] = row % 9 + 1;
+        }
+        if (onSolution != null)
+            onSolution.accept(this);
+        return found >= limit;
+    }
+
+    /** Picks the rows of the given cells, searches for solutions and then restores the matrix.
+     *  The last solution found is left on the board. */
+    private int run(int limit, Consumer<SudokuSolver> onSolution) {
+        this.limit = limit;
+        found = 0;
+
+        givens = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            if (cells[cell] != 0)
+                solution[givens++] = firstNode(cell * 9 + cells[cell] - 1);
+        }
+        if (limit <= 0)
+            return 0;
+
+        this.onSolution = onSolution;
+        for (int i = 0; i < givens; i++)
+            select(solution[i]);
+
+        search(givens);
+        stopped = !running;
+        running = true;
+
+        for (int i = givens - 1; i >= 0; i--)
+            deselect(solution[i]);
+
+        this.onSolution = null;
+        return found;
+    }
+
+    @Override
+    public int solveMultiple(int limit, Consumer<SudokuSolver> onSolution) {
+        limits.start();
+        int count = run(limit, onSolution);
+
+        // The rows of the given cells are still at the start of the solution
+        for (int i = 0; i < 81; i++)
+            cells[i] = 0;
+        for (int i = 0; i < givens; i++) {
+            int row = rowOf(solution[i]);
+            cells[row / 9] = row % 9 + 1;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean solve() {
+        limits.start();
+        boolean solved = solveOnce();
+        limits.finish();
+        return solved;
+    }
+
+    @Override
+    public SolveResult solve(long nodeBudget) {
+        limits.start(nodeBudget, null);
+        return limits.result(solveOnce() ? stringify() : null, stopped);
+    }
+
+    @Override
+    public SolveResult solve(Duration deadline) {
+        limits.start(Long.MAX_VALUE, deadline);
+        return limits.result(solveOnce() ? stringify() : null, stopped);
+    }
+
+    private boolean solveOnce() {
+        if (run(1, null) == 0)
+            return false;
+
+        for (int cell = 0; cell < 81; cell++) {
+            int bit = 1 << (cells[cell] - 1);
+            rows[BitmaskSudoku.ROW[cell]] |= bit;
+            cols[BitmaskSudoku.COL[cell]] |= bit;
+            boxes[BitmaskSudoku.BOX[cell]] |= bit;
+        }
+        return true;
+    }
+
+    /** Stops the current attempt to solve the board, or the next one if it hasn't started yet.
+     *  This should be called from a different thread. */
+    @Override
+    public void stopSolve() {
+        running = false;
+    }
+
+    /** Ensures that the given row, col are within 0-8. */
+    private boolean outOfBounds(int row, int col) {
+        return row < 0 || row > 8 || col < 0 || col > 8;
+    }
+
+    /** Clears the entire sudoku board using indices 0-8 instead of 1-9 */
+    @Override
+    public void clear() {
+        for (int i = 0; i < 81; i++)
+            cells[i] = 0;
+        for (int i = 0; i < 9; i++) {
+            rows[i] = 0;
+            cols[i] = 0;
+            boxes[i] = 0;
+        }
+        running = true;
+    }
+
+    @Override
+    public void setCell(int row, int col, int val) throws IllegalArgumentException {
+        if (outOfBounds(row, col) || val < 0 || val > 9)
+            throw new IllegalArgumentException(String.format("Failed to put %s at (%s, %s)!\n", val, row, col));
+
+        int cell = row * 9 + col;
+        int b = BitmaskSudoku.BOX[cell];
+        int old = cells[cell] == 0 ? 0 : 1 << (cells[cell] - 1);
+        int used = (rows[row] | cols[col] | boxes[b]) & ~old;
+        int bit = val == 0 ? 0 : 1 << (val - 1);
+        if ((used & bit) != 0)
+            throw new IllegalArgumentException(String.format("Failed to put %s at (%s, %s)!\n", val, row, col));
+
+        rows[row] = (rows[row] & ~old) | bit;
+        cols[col] = (cols[col] & ~old) | bit;
+        boxes[b] = (boxes[b] & ~old) | bit;
+        cells[cell] = val;
+    }
+
+    @Override
+    public int getCell(int row, int col) throws IllegalArgumentException {
+        if (outOfBounds(row, col))
+            throw new IllegalArgumentException(String.format("Failed to read at (%s, %s)\n", row, col));
+        return cells[row * 9 + col];
+    }
+
+    /** Returns a visual representation of the board */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < 9; r++) {
+            sb.append("\n");
+            for (int c = 0; c < 9; c++) {
+                sb.append(String.format(" %s ", cells[r * 9 + c]));
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,123 @@
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * The solver-engines that can be picked by name, for example by {@link AdaptiveSudoku}.
+ *
+ * The shared registry has the engines of this module, and every engine of the classpath that is
+ * listed as a {@link Provider} in META-INF/services/EngineRegistry$Provider.
+ * All methods are thread-safe.
+ */
+public final class EngineRegistry {
+
+    /** An engine, which is found by ServiceLoader if it has a public no-argument constructor. */
+    public interface Provider {
+        /** Short, unique name of the engine. */
+        String name();
+
+        /** Creates a new solver. Every solver is used by one thread at a time. */
+        SudokuSolver create();
+
+        /** Returns false if the engine can't be used here, for example if a library is missing. */
+        default boolean isAvailable() {
+            return true;
+        }
+    }
+
+    /** Filled the first time shared() is called. */
+    private static class Shared {
+        static final EngineRegistry INSTANCE = withServices();
+    }
+
+    private final Map<String, Provider> providers = new LinkedHashMap<>();
+
+    /** Creates a registry without any engines. */
+    public EngineRegistry() {}
+
+    /**
+     * Returns a registry with the engines of this module, the fastest first. Sudoku is left out:
+     * it's the naive reference search, and its answers from the SolutionCache would look like solves.
+     */
+    public static EngineRegistry builtIn() {
+        EngineRegistry registry = new EngineRegistry();
+        registry.register("bitmask", BitmaskSudoku::new);
+        registry.register("dancing-links", DancingLinks::new);
+        registry.register("parallel", ParallelSudoku::new);
+        registry.register("iterative", IterativeSudoku::new);
+        registry.register(new Provider() {
+            @Override
+            public String name() {
+                return "external";
+            }
+
+            @Override
+            public SudokuSolver create() {
+                return new ExternalSudoku();
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return Files.isExecutable(Paths.get(ExternalEngine.DEFAULT_PATH));
+            }
+        });
+        return registry;
+    }
+
+    private static EngineRegistry withServices() {
+        EngineRegistry registry = builtIn();
+        for (Provider provider : ServiceLoader.load(Provider.class))
+            registry.register(provider);
+        return registry;
+    }
+
+    /** Returns the registry with the engines of this module and of the classpath. */
+    public static EngineRegistry shared() {
+        return Shared.INSTANCE;
+    }
+
+    /** @throws IllegalArgumentException if there already is an engine with the same name. */
+    public synchronized void register(Provider provider) {
+        if (providers.containsKey(provider.name()))
+            throw new IllegalArgumentException(String.format("Engine %s is already registered\n", provider.name()));
+        providers.put(provider.name(), provider);
+    }
+
+    /** Registers an engine that is always available. */
+    public void register(String name, Supplier<SudokuSolver> factory) {
+        register(new Provider() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public SudokuSolver create() {
+                return factory.get();
+            }
+        });
+    }
+
+    /** Returns the names of the engines that are available, in the order they were registered. */
+    public synchronized List<String> names() {
+        List<String> names = new ArrayList<>();
+        for (Provider provider : providers.values()) {
+            if (provider.isAvailable())
+                names.add(provider.name());
+        }
+        return names;
+    }
+
+    /** @throws IllegalArgumentException if there is no engine with the given name. */
+    public SudokuSolver create(String name) {
+        Provider provider;
+        synchronized (this) {
+            provider = providers.get(name);
+        }
+        if (provider == null)
+            throw new IllegalArgumentException(String.format("Unknown engine: %s\n", name));
+        return provider.create();
+    }
+
+}
@@ -0,0 +1,140 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the engine that is expected to solve a puzzle the fastest, from the latencies of earlier solves.
+ *
+ * Puzzles are sorted into buckets by cheap features: the number of clues, and how many of the empty
+ * cells have at most two candidates. For every bucket and engine, the latency is kept as an exponentially
+ * weighted moving average, so that the choice follows changes in the traffic.
+ * Engines that haven't been tried on a bucket are tried first, unless they are far slower than the best
+ * engine on other puzzles, and now and then an engine that isn't far behind the best is tried again.
+ *
+ * All methods are thread-safe, and the same selector is meant to be shared by all solvers.
+ */
+public final class EngineSelector {
+
+    /** Weight of the newest latency in the average. */
+    private static final double ALPHA = 0.2;
+    /** Every this many choices in a bucket, an engine other than the best is tried. */
+    private static final int EXPLORE_EVERY = 32;
+    /** Engines that are more than this many times slower than the best are not tried again. */
+    private static final double EXPLORE_FACTOR = 4;
+
+    /** Bucket of the stats over all puzzles. */
+    private static final int ALL = -1;
+
+    private static class Shared {
+        static final EngineSelector INSTANCE = new EngineSelector();
+    }
+
+    private static final class Stat {
+        double nanos;
+        long samples, lastUsed;
+    }
+
+    private final Map<Integer, Map<String, Stat>> stats = new HashMap<>();
+    private final Map<Integer, Integer> choices = new HashMap<>();
+    private long clock;
+
+    /** Creates a selector that knows nothing about the engines yet. */
+    public EngineSelector() {}
+
+    /** Returns the selector that is shared by all AdaptiveSudokus that aren't given one. */
+    public static EngineSelector shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Finds the bucket of the board: 5 ranges of clue counts times 4 quarters of empty cells with
+     * at most two candidates, from the histogram of candidate counts.
+     */
+    static int bucket(BitmaskSudoku board) {
+        int clues = 0, empty = 0;
+        int[] histogram = new int[10];
+        for (int cell = 0; cell < 81; cell++) {
+            if (board.getCell(cell / 9, cell % 9) != 0) {
+                clues++;
+            } else {
+                empty++;
+                histogram[Integer.bitCount(board.candidates(cell))]++;
+            }
+        }
+        int narrow = histogram[0] + histogram[1] + histogram[2];
+        int clueRange = clues <= 20 ? 0 : clues <= 25 ? 1 : clues <= 30 ? 2 : clues <= 40 ? 3 : 4;
+        int narrowQuarter = empty == 0 ? 3 : Math.min(3, 4 * narrow / empty);
+        return clueRange * 4 + narrowQuarter;
+    }
+
+    /** Picks one of the engines for a puzzle in the given bucket. */
+    public synchronized String choose(int bucket, List<String> engines) {
+        if (engines.isEmpty())
+            throw new IllegalArgumentException("No engines to choose from");
+        Map<String, Stat> local = stats(bucket), global = stats(ALL);
+
+        String best = fastest(local, engines);
+        String bestOverall = fastest(global, engines);
+        for (String engine : engines) {
+            if (!local.containsKey(engine) && !farBehind(global, engine, bestOverall))
+                return engine;
+        }
+        if (best == null)
+            return bestOverall != null ? bestOverall : engines.get(0);
+
+        int count = choices.merge(bucket, 1, Integer::sum);
+        if (count % EXPLORE_EVERY == 0) {
+            // Retry the engine that was used the longest ago, of those that might catch up
+            String oldest = null;
+            for (String engine : engines) {
+                Stat stat = local.get(engine);
+                if (stat != null && !engine.equals(best) && !farBehind(local, engine, best)
+                        && (oldest == null || stat.lastUsed < local.get(oldest).lastUsed))
+                    oldest = engine;
+            }
+            if (oldest != null)
+                return oldest;
+        }
+        return best;
+    }
+
+    /** Records how long an engine took on a puzzle in the given bucket. */
+    public synchronized void record(int bucket, String engine, long nanos) {
+        clock++;
+        update(stats(bucket), engine, nanos);
+        update(stats(ALL), engine, nanos);
+    }
+
+    /** Returns the average latency of an engine on a bucket, or NaN if it hasn't been used on it. */
+    public synchronized double averageNanos(int bucket, String engine) {
+        Stat stat = stats(bucket).get(engine);
+        return stat == null ? Double.NaN : stat.nanos;
+    }
+
+    private void update(Map<String, Stat> bucket, String engine, long nanos) {
+        Stat stat = bucket.computeIfAbsent(engine, e -> new Stat());
+        stat.nanos = stat.samples == 0 ? nanos : ALPHA * nanos + (1 - ALPHA) * stat.nanos;
+        stat.samples++;
+        stat.lastUsed = clock;
+    }
+
+    private Map<String, Stat> stats(int bucket) {
+        return stats.computeIfAbsent(bucket, b -> new HashMap<>());
+    }
+
+    private static String fastest(Map<String, Stat> bucket, List<String> engines) {
+        String best = null;
+        for (String engine : engines) {
+            Stat stat = bucket.get(engine);
+            if (stat != null && (best == null || stat.nanos < bucket.get(best).nanos))
+                best = engine;
+        }
+        return best;
+    }
+
+    private static boolean farBehind(Map<String, Stat> bucket, String engine, String best) {
+        Stat stat = bucket.get(engine);
+        return stat != null && best != null && stat.nanos > EXPLORE_FACTOR * bucket.get(best).nanos;
+    }
+
+}
@@ -0,0 +1,236 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Bridge to an external solver-engine, such as the one in /engines.
+ *
+ * Instead of starting the engine once per board, a small pool of engine processes is kept running
+ * in streaming mode (started with the argument "-"), where they read one 81-character board per line
+ * from stdin and answer with one line on stdout: the solution, or X if there is none.
+ * Many boards can be written to a process before its answers are read, so the cost of a board is
+ * little more than the time it takes to solve it.
+ *
+ * An engine that doesn't answer within the timeout is killed, and an engine that crashes is restarted.
+ * All methods are thread-safe, every call gets a process of its own from the pool.
+ */
+public final class ExternalEngine implements AutoCloseable {
+
+    public static final String DEFAULT_PATH = "sudoku-solver/engines/c_solver";
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    /** Answer of the engine for boards that have no solution or break the rules of sudoku. */
+    public static final String NO_SOLUTION = "X";
+
+    /** Maximum number of boards written to a process ahead of its answers.
+     *  This keeps both pipes far from full, or the process and we could end up waiting for each other. */
+    private static final int WINDOW = 64;
+
+    /** Opened by the first call to shared(). */
+    private static class Shared {
+        static final ExternalEngine INSTANCE = new ExternalEngine(
+                Paths.get(DEFAULT_PATH), Runtime.getRuntime().availableProcessors(), DEFAULT_TIMEOUT);
+    }
+
+    /** One engine process, which is started when it's first needed and restarted after it dies. */
+    private final class Worker {
+        private Process process;
+        private Writer in;
+        private BufferedReader out;
+
+        void ensureStarted() throws IOException {
+            if (process != null && process.isAlive())
+                return;
+            stop();
+            process = new ProcessBuilder(executable.toString(), "-")
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.US_ASCII));
+            out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+        }
+
+        void stop() {
+            if (process != null)
+                process.destroyForcibly();
+            process = null;
+        }
+
+        /** Queues a board, it's not sent until the next read. */
+        void write(CharSequence board) throws IOException {
+            for (int i = 0; i < 81; i++) {
+                char ch = board.charAt(i);
+                in.write(ch == '.' ? '0' : ch);
+            }
+            in.write('\n');
+        }
+
+        /** Reads the next answer, and kills the process if it takes longer than the timeout. */
+        String read() throws IOException, TimeoutException {
+            in.flush();
+            Process p = process;
+            ScheduledFuture<?> kill = WATCHDOG.schedule(p::destroyForcibly, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            String line;
+            try {
+                line = out.readLine();
+            } catch (IOException e) {
+                line = null;
+            } finally {
+                kill.cancel(false);
+            }
+            if (line != null)
+                return line;
+            if (kill.isDone() && !kill.isCancelled())
+                throw new TimeoutException(String.format("No answer from %s within %s\n", executable, timeout));
+            throw new EOFException(String.format("%s exited with %s\n", executable, exitValue(p)));
+        }
+    }
+
+    /** Kills the engines that don't answer in time, shared by all bridges. */
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "external-engine-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path executable;
+    private final Duration timeout;
+    private final BlockingQueue<Worker> idle;
+    private volatile boolean closed;
+
+    /**
+     * @param executable the engine, which must support the streaming mode.
+     * @param workers the maximum number of engine processes.
+     * @param timeout how long to wait for the answer to a board.
+     */
+    public ExternalEngine(Path executable, int workers, Duration timeout) {
+        if (workers < 1)
+            throw new IllegalArgumentException("Need at least one worker: " + workers);
+        this.executable = executable.toAbsolutePath();
+        this.timeout = timeout;
+        this.idle = new ArrayBlockingQueue<>(workers);
+        for (int i = 0; i < workers; i++)
+            idle.add(new Worker());
+    }
+
+    /** Returns the engine at {@link #DEFAULT_PATH}, which is set up the first time this is called. */
+    public static ExternalEngine shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Solves a board.
+     * @return the solution, or {@link #NO_SOLUTION}.
+     * @throws TimeoutException if the engine didn't answer in time.
+     * @throws IOException if the engine can't be started, or keeps crashing on the board.
+     * @throws InterruptedException if interrupted while waiting for an engine process.
+     */
+    public String solve(CharSequence board) throws IOException, TimeoutException, InterruptedException {
+        return solve(Collections.singletonList(board))[0];
+    }
+
+    /**
+     * Solves all the boards with one engine process, writing boards to it while it's still
+     * solving the ones before.
+     * @return the solutions in the same order as the boards, with {@link #NO_SOLUTION} for
+     *         boards without solution, and for those that aren't 81 digits or dots.
+     * @throws TimeoutException if the engine didn't answer in time on one of the boards.
+     * @throws IOException if the engine can't be started, or keeps crashing on one of the boards.
+     */
+    public String[] solve(List<? extends CharSequence> boards) throws IOException, TimeoutException, InterruptedException {
+        if (closed)
+            throw new IllegalStateException("The engine is closed");
+
+        String[] solutions = new String[boards.size()];
+        Worker worker = idle.take();
+        try {
+            // Restart a crashed engine once, and after that as long as it gets further every time
+            int done = -1;
+            while (true) {
+                worker.ensureStarted();
+                try {
+                    run(worker, boards, solutions);
+                    return solutions;
+                } catch (TimeoutException e) {
+                    worker.stop();
+                    throw e;
+                } catch (IOException e) {
+                    worker.stop();
+                    int progress = count(solutions);
+                    if (progress == done || closed)
+                        throw e;
+                    done = progress;
+                }
+            }
+        } finally {
+            if (closed)
+                worker.stop();
+            idle.add(worker);
+        }
+    }
+
+    /** Solves the boards that have no solution yet, with at most WINDOW of them waiting for an answer. */
+    private void run(Worker worker, List<? extends CharSequence> boards, String[] solutions)
+            throws IOException, TimeoutException {
+        ArrayDeque<Integer> pending = new ArrayDeque<>(WINDOW);
+        int next = 0;
+        while (next < boards.size() || !pending.isEmpty()) {
+            while (next < boards.size() && pending.size() < WINDOW) {
+                int i = next++;
+                if (solutions[i] != null)
+                    continue;
+                if (isBoard(boards.get(i))) {
+                    worker.write(boards.get(i));
+                    pending.add(i);
+                } else {
+                    solutions[i] = NO_SOLUTION;
+                }
+            }
+            if (!pending.isEmpty())
+                solutions[pending.poll()] = worker.read();
+        }
+    }
+
+    private static int count(String[] solutions) {
+        int count = 0;
+        for (String solution : solutions) {
+            if (solution != null)
+                count++;
+        }
+        return count;
+    }
+
+    private static boolean isBoard(CharSequence board) {
+        if (board.length() != 81)
+            return false;
+        for (int i = 0; i < 81; i++) {
+            char ch = board.charAt(i);
+            if ((ch < '0' || ch > '9') && ch != '.')
+                return false;
+        }
+        return true;
+    }
+
+    private static String exitValue(Process process) {
+        try {
+            return "exit value " + process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown exit value";
+        }
+    }
+
+    /** Stops all the engine processes, those that are busy are stopped when they're done. */
+    @Override
+    public void close() {
+        closed = true;
+        for (Worker worker : idle)
+            worker.stop();
+    }
+
+}
@@ -0,0 +1,42 @@
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sudoku-solver that hands solve() over to an {@link ExternalEngine}, so that the C engine can be
+ * used like any other engine. Everything else is done by {@link BitmaskSudoku}, which also solves
+ * the board if the external engine fails or doesn't answer in time.
+ */
+public class ExternalSudoku extends BitmaskSudoku {
+
+    private final ExternalEngine engine;
+
+    public ExternalSudoku() {
+        this(ExternalEngine.shared());
+    }
+
+    public ExternalSudoku(ExternalEngine engine) {
+        super("external");
+        this.engine = engine;
+    }
+
+    @Override
+    public boolean solve() {
+        String solution;
+        long t0 = System.nanoTime();
+        try {
+            solution = engine.solve(stringify());
+            Metrics.solved("external", System.nanoTime() - t0);
+        } catch (IOException | TimeoutException e) {
+            e.printStackTrace();
+            return super.solve();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (solution.equals(ExternalEngine.NO_SOLUTION))
+            return false;
+        load(solution);
+        return true;
+    }
+
+}
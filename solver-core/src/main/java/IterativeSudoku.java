@@ -0,0 +1,236 @@
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Sudoku-solver that does the same search as {@link Sudoku} (cells row by row, digits from 1 to 9),
+ * but without recursion.
+ *
+ * The empty cells are listed once before the search, so filled cells are never visited, and the
+ * search keeps an explicit stack with the digit tried in every empty cell. Used digits are kept as
+ * bitmasks per row, column and box, so a cell's next candidate is found in a few bitwise operations.
+ * Whether the search has been stopped is only checked every {@link #CHECK_EVERY} nodes.
+ * Nothing is allocated after construction, apart from the strings of stringify() and the
+ * results of the bounded solves.
+ */
+public class IterativeSudoku implements SudokuSolver {
+
+    /** Number of nodes between checks of stopSolve(). */
+    static final int CHECK_EVERY = 1 << 12;
+
+    /** Bits 1-9, bit d is set if the digit d is used. */
+    private static final int ALL_DIGITS = 0x3FE;
+
+    private final int[] cells = new int[81];
+    private final int[] rows = new int[9], cols = new int[9], boxes = new int[9];
+
+    /** The empty cells in search order, and the digit that is tried in each of them (0 for none yet). */
+    private final int[] empty = new int[81], tried = new int[81];
+
+    private final SearchLimit limits = new SearchLimit("iterative");
+
+    /** Cleared by stopSolve(), and set again when a search ends or a board is loaded, so that a stop
+     *  that comes just before a search still stops it. */
+    private volatile boolean running = true;
+    /** If the last search was stopped. */
+    private boolean stopped;
+
+    private void place(int cell, int value) {
+        int bit = 1 << value;
+        cells[cell] = value;
+        rows[BitmaskSudoku.ROW[cell]] |= bit;
+        cols[BitmaskSudoku.COL[cell]] |= bit;
+        boxes[BitmaskSudoku.BOX[cell]] |= bit;
+    }
+
+    private void remove(int cell) {
+        int bit = ~(1 << cells[cell]);
+        cells[cell] = 0;
+        rows[BitmaskSudoku.ROW[cell]] &= bit;
+        cols[BitmaskSudoku.COL[cell]] &= bit;
+        boxes[BitmaskSudoku.BOX[cell]] &= bit;
+    }
+
+    private int used(int cell) {
+        return rows[BitmaskSudoku.ROW[cell]] | cols[BitmaskSudoku.COL[cell]] | boxes[BitmaskSudoku.BOX[cell]];
+    }
+
+    /**
+     * Searches for at most limit solutions.
+     * @param keep if true, the last solution found is left on the board, otherwise the board is left as it was.
+     * @return the number of solutions found.
+     */
+    private int search(int limit, Consumer<SudokuSolver> onSolution, boolean keep) {
+        int found = walk(limit, onSolution, keep);
+        stopped = !running;
+        running = true;
+        return found;
+    }
+
+    private int walk(int limit, Consumer<SudokuSolver> onSolution, boolean keep) {
+        int n = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            if (cells[cell] == 0)
+                empty[n++] = cell;
+        }
+        if (limit <= 0)
+            return 0;
+        if (n == 0) {
+            if (onSolution != null)
+                onSolution.accept(this);
+            return 1;
+        }
+
+        int found = 0;
+        int depth = 0;
+        int check = CHECK_EVERY;
+        tried[0] = 0;
+        while (depth >= 0) {
+            if (!limits.node(depth))
+                break;
+            if (--check == 0) {
+                check = CHECK_EVERY;
+                if (!running)
+                    break;
+            }
+
+            int cell = empty[depth];
+            int value = tried[depth];
+            if (value != 0)
+                remove(cell);
+
+            // The candidates above the digit tried last
+            int free = ~used(cell) & ALL_DIGITS & -(2 << value);
+            if (free == 0) {
+                tried[depth] = 0;
+                depth--;
+                limits.backtrack();
+                continue;
+            }
+            value = Integer.numberOfTrailingZeros(free);
+            place(cell, value);
+            tried[depth] = value;
+
+            if (depth + 1 < n) {
+                tried[++depth] = 0;
+                continue;
+            }
+
+            // All cells are filled
+            found++;
+            if (onSolution != null)
+                onSolution.accept(this);
+            if (found >= limit) {
+                if (keep)
+                    return found;
+                break;
+            }
+        }
+
+        // Stopped, out of budget, or enough solutions were found, so undo what's left of the search
+        for (int i = Math.min(depth, n - 1); i >= 0; i--) {
+            if (tried[i] != 0)
+                remove(empty[i]);
+            tried[i] = 0;
+        }
+        return found;
+    }
+
+    @Override
+    public boolean solve() {
+        limits.start();
+        boolean solved = search(1, null, true) == 1;
+        limits.finish();
+        return solved;
+    }
+
+    @Override
+    public SolveResult solve(long nodeBudget) {
+        limits.start(nodeBudget, null);
+        return limits.result(search(1, null, true) == 1 ? stringify() : null, stopped);
+    }
+
+    @Override
+    public SolveResult solve(Duration deadline) {
+        limits.start(Long.MAX_VALUE, deadline);
+        return limits.result(search(1, null, true) == 1 ? stringify() : null, stopped);
+    }
+
+    @Override
+    public int solveMultiple(int limit, Consumer<SudokuSolver> onSolution) {
+        limits.start();
+        return search(limit, onSolution, false);
+    }
+
+    /** Stops the current attempt to solve the board, or the next one if it hasn't started yet.
+     *  This should be called from a different thread. */
+    @Override
+    public void stopSolve() {
+        running = false;
+    }
+
+    /** Ensures that the given row, col are within 0-8. */
+    private boolean outOfBounds(int row, int col) {
+        return row < 0 || row > 8 || col < 0 || col > 8;
+    }
+
+    /** Clears the entire sudoku board using indices 0-8 instead of 1-9 */
+    @Override
+    public void clear() {
+        for (int i = 0; i < 81; i++)
+            cells[i] = 0;
+        for (int i = 0; i < 9; i++) {
+            rows[i] = 0;
+            cols[i] = 0;
+            boxes[i] = 0;
+        }
+        running = true;
+    }
+
+    @Override
+    public void setCell(int row, int col, int val) throws IllegalArgumentException {
+        if (outOfBounds(row, col) || val < 0 || val > 9)
+            throw new IllegalArgumentException(String.format("Failed to put %s at (%s, %s)!\n", val, row, col));
+
+        int cell = row * 9 + col;
+        int old = cells[cell];
+        if (old != 0)
+            remove(cell);
+        if (val == 0)
+            return;
+
+        if ((used(cell) & (1 << val)) != 0) {
+            if (old != 0)
+                place(cell, old);
+            throw new IllegalArgumentException(String.format("Failed to put %s at (%s, %s)!\n", val, row, col));
+        }
+        place(cell, val);
+    }
+
+    @Override
+    public int getCell(int row, int col) throws IllegalArgumentException {
+        if (outOfBounds(row, col))
+            throw new IllegalArgumentException(String.format("Failed to read at (%s, %s)\n", row, col));
+        return cells[row * 9 + col];
+    }
+
+    @Override
+    public String stringify() {
+        char[] text = new char[81];
+        for (int cell = 0; cell < 81; cell++)
+            text[cell] = (char) ('0' + cells[cell]);
+        return new String(text);
+    }
+
+    /** Returns a visual representation of the board */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < 9; r++) {
+            sb.append("\n");
+            for (int c = 0; c < 9; c++) {
+                sb.append(String.format(" %s ", cells[r * 9 + c]));
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,180 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums up what the solvers and the cache report, and keeps a {@link LatencyHistogram} for every engine.
+ * The counters are LongAdders, so threads that solve at the same time rarely touch the same memory.
+ */
+public final class JmxMetrics implements Metrics.Listener, JmxMetricsMXBean {
+
+    public static final String OBJECT_NAME = "sudoku:type=SolverMetrics";
+
+    private final LongAdder solves = new LongAdder(), nodes = new LongAdder(),
+            backtracks = new LongAdder(), propagations = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0),
+            maxNodes = new LongAccumulator(Math::max, 0);
+    private final LongAdder cacheHits = new LongAdder(), cacheMisses = new LongAdder(), cacheLookupNanos = new LongAdder(),
+            cacheStores = new LongAdder(), cacheStoreNanos = new LongAdder();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    /** The metrics that are registered, or null. */
+    private static JmxMetrics registered;
+
+    /**
+     * Creates the metrics, registers them with the platform MBean server under {@value #OBJECT_NAME}
+     * and installs them in {@link Metrics}. If this has been done already, the registered metrics
+     * are returned, so it's fine to call this more than once.
+     * @throws IllegalStateException if the metrics can't be registered.
+     */
+    public static synchronized JmxMetrics register() {
+        if (registered != null)
+            return registered;
+        JmxMetrics metrics = new JmxMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, e);
+        }
+        Metrics.install(metrics);
+        registered = metrics;
+        return metrics;
+    }
+
+    /** Uninstalls the metrics and removes them from the MBean server, if they're registered. */
+    public static synchronized void unregister() {
+        registered = null;
+        Metrics.install(null);
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name))
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void solved(String engine, long nanos, long nodes, long backtracks, int maxDepth, long propagations) {
+        solves.increment();
+        this.nodes.add(nodes);
+        this.backtracks.add(backtracks);
+        this.propagations.add(propagations);
+        this.maxDepth.accumulate(maxDepth);
+        this.maxNodes.accumulate(nodes);
+        LatencyHistogram histogram = latencies.get(engine);
+        if (histogram == null)
+            histogram = latencies.computeIfAbsent(engine, name -> new LatencyHistogram());
+        histogram.record(nanos);
+    }
+
+    @Override
+    public void cacheLookup(boolean hit, long nanos) {
+        (hit ? cacheHits : cacheMisses).increment();
+        cacheLookupNanos.add(nanos);
+    }
+
+    @Override
+    public void cacheStore(long nanos) {
+        cacheStores.increment();
+        cacheStoreNanos.add(nanos);
+    }
+
+    /** Returns the latencies of an engine, or null if it hasn't solved anything. */
+    public LatencyHistogram latencies(String engine) {
+        return latencies.get(engine);
+    }
+
+    @Override
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getBacktracks() {
+        return backtracks.sum();
+    }
+
+    @Override
+    public long getPropagations() {
+        return propagations.sum();
+    }
+
+    @Override
+    public int getMaxDepth() {
+        return (int) maxDepth.get();
+    }
+
+    @Override
+    public long getMaxNodes() {
+        return maxNodes.get();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public long getCacheLookupNanos() {
+        return cacheLookupNanos.sum();
+    }
+
+    @Override
+    public long getCacheStores() {
+        return cacheStores.sum();
+    }
+
+    @Override
+    public long getCacheStoreNanos() {
+        return cacheStoreNanos.sum();
+    }
+
+    @Override
+    public Map<String, Long> getMedianNanos() {
+        return percentiles(50);
+    }
+
+    @Override
+    public Map<String, Long> getP99Nanos() {
+        return percentiles(99);
+    }
+
+    private Map<String, Long> percentiles(double percentile) {
+        Map<String, Long> result = new TreeMap<>();
+        latencies.forEach((engine, histogram) -> result.put(engine, histogram.percentile(percentile)));
+        return result;
+    }
+
+    @Override
+    public long latencyNanos(String engine, double percentile) {
+        LatencyHistogram histogram = latencies.get(engine);
+        return histogram == null ? 0 : histogram.percentile(percentile);
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[] {solves, nodes, backtracks, propagations,
+                cacheHits, cacheMisses, cacheLookupNanos, cacheStores, cacheStoreNanos})
+            adder.reset();
+        maxDepth.reset();
+        maxNodes.reset();
+        latencies.values().forEach(LatencyHistogram::reset);
+    }
+
+}
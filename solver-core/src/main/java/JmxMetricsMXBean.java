@@ -0,0 +1,41 @@
+import java.util.Map;
+
+/** The numbers of {@link JmxMetrics}, as seen in JConsole or any other JMX client. */
+public interface JmxMetricsMXBean {
+
+    long getSolves();
+
+    long getNodes();
+
+    long getBacktracks();
+
+    long getPropagations();
+
+    /** The depth of the deepest node of any solve. */
+    int getMaxDepth();
+
+    /** The most nodes any one solve needed, which points at pathological puzzles. */
+    long getMaxNodes();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    long getCacheLookupNanos();
+
+    long getCacheStores();
+
+    long getCacheStoreNanos();
+
+    /** The median latency of every engine, in nanoseconds. */
+    Map<String, Long> getMedianNanos();
+
+    /** The 99th percentile of the latency of every engine, in nanoseconds. */
+    Map<String, Long> getP99Nanos();
+
+    /** Returns the given percentile of the latency of an engine, in nanoseconds. */
+    long latencyNanos(String engine, double percentile);
+
+    void reset();
+
+}
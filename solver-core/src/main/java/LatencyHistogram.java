@@ -0,0 +1,88 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds, with buckets in the style of HdrHistogram: every power of two
+ * is split into {@value #SUB_BUCKETS} buckets of the same width, so every value is kept within about 3%,
+ * from a nanosecond to centuries, in a fixed array.
+ *
+ * Recording is lock-free and allocates nothing, and can be done from any number of threads.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** Values below this are counted exactly. */
+    private static final int LINEAR = 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(Long.MAX_VALUE) + 1);
+
+    static int index(long value) {
+        if (value < LINEAR)
+            return (int) Math.max(0, value);
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /** Returns the lowest value counted in the bucket. */
+    static long lowest(int index) {
+        if (index < LINEAR)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    /** Returns the highest value counted in the bucket. */
+    static long highest(int index) {
+        if (index < LINEAR)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        return lowest(index) + (1L << shift) - 1;
+    }
+
+    public void record(long nanos) {
+        counts.incrementAndGet(index(nanos));
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++)
+            count += counts.get(i);
+        return count;
+    }
+
+    /**
+     * Returns the value that the given percentile of the values are at or below, rounded up to the
+     * highest value of its bucket, or 0 if nothing is recorded.
+     * @param percentile between 0 and 100.
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Not a percentile: " + percentile);
+        long total = count();
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return highest(i);
+        }
+        return highest(counts.length() - 1);
+    }
+
+    /** Returns the highest value recorded, rounded up like percentile. */
+    public long max() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) != 0)
+                return highest(i);
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++)
+            counts.set(i, 0);
+    }
+
+}
@@ -0,0 +1,354 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Solution table stored in a memory-mapped file, so that it can hold far more boards than
+ * fit in the heap, and can be read by several processes at the same time.
+ *
+ * The file has a header, an open-addressed hash index and fixed-width records:
+ * <pre>
+ *   header   magic, version, capacity of the index, number of records, moved-flag
+ *   index    capacity entries of (record number + 1, upper half of the hash), 0 if empty
+ *   records  (status, packed board, packed solution), in the order they were added
+ * </pre>
+ * Boards are packed as in {@link SolutionCache}, 41 bytes each. Lookups probe the index and
+ * compare the packed board directly in the mapped file, without reading anything into the heap.
+ *
+ * Writers take a lock on the file, so only one process writes at a time. File locks belong to the
+ * whole process, so stores in the same process that share a file take turns on a lock of their own
+ * before they take the file lock. A record is written
+ * before the index entry that points to it, so readers never need a lock. When the index gets
+ * too full, it's rebuilt with twice the capacity in a new file that replaces the old one, and the
+ * old file is marked as moved so that readers in other processes open the new one.
+ */
+final class MappedSolutionStore implements Closeable {
+
+    private static final long MAGIC = 0x5355444f4b555342L;      // "SUDOKUSB"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4096;
+    private static final int MAGIC_OFFSET = 0, VERSION_OFFSET = 8, CAPACITY_OFFSET = 12,
+                             COUNT_OFFSET = 16, MOVED_OFFSET = 20;
+
+    static final int BOARD_SIZE = 41;
+    private static final int RECORD_SIZE = 1 + 2 * BOARD_SIZE;
+    private static final byte SOLVED = 1, UNSOLVABLE = 2;
+    private static final int MIN_CAPACITY = 1024;
+
+    /** A single mapping can't be larger than 2 GB, so the index and the records are mapped in chunks. */
+    private static final int INDEX_CHUNK_SHIFT = 26, RECORD_CHUNK_SHIFT = 22;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /** The lock of every file in this process, see {@link #processLock(Path)}. */
+    private static final ConcurrentHashMap<Path, ReentrantLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private volatile Mapping mapping;
+
+    /** One open version of the file. */
+    private static final class Mapping {
+        final FileChannel channel;
+        final int capacity, maxRecords;
+        final MappedByteBuffer header;
+        final MappedByteBuffer[] index, records;
+
+        Mapping(FileChannel channel, int capacity) throws IOException {
+            this.channel = channel;
+            this.capacity = capacity;
+            this.maxRecords = capacity / 4 * 3;
+
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+            long indexStart = HEADER_SIZE;
+            index = new MappedByteBuffer[chunks(capacity, INDEX_CHUNK_SHIFT)];
+            for (int i = 0; i < index.length; i++) {
+                long entries = Math.min(1L << INDEX_CHUNK_SHIFT, capacity - ((long) i << INDEX_CHUNK_SHIFT));
+                index[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        indexStart + ((long) i << INDEX_CHUNK_SHIFT) * 8, entries * 8);
+            }
+
+            long recordStart = indexStart + capacity * 8L;
+            records = new MappedByteBuffer[chunks(maxRecords, RECORD_CHUNK_SHIFT)];
+            for (int i = 0; i < records.length; i++) {
+                long count = Math.min(1L << RECORD_CHUNK_SHIFT, maxRecords - ((long) i << RECORD_CHUNK_SHIFT));
+                records[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        recordStart + ((long) i << RECORD_CHUNK_SHIFT) * RECORD_SIZE, count * RECORD_SIZE);
+            }
+        }
+
+        static long fileSize(int capacity) {
+            return HEADER_SIZE + capacity * 8L + (long) (capacity / 4 * 3) * RECORD_SIZE;
+        }
+
+        private static int chunks(int count, int shift) {
+            return (int) ((count + (1L << shift) - 1) >> shift);
+        }
+
+        MappedByteBuffer indexChunk(int slot) {
+            return index[slot >>> INDEX_CHUNK_SHIFT];
+        }
+
+        int indexOffset(int slot) {
+            return (slot & ((1 << INDEX_CHUNK_SHIFT) - 1)) * 8;
+        }
+
+        MappedByteBuffer recordChunk(int record) {
+            return records[record >>> RECORD_CHUNK_SHIFT];
+        }
+
+        int recordOffset(int record) {
+            return (record & ((1 << RECORD_CHUNK_SHIFT) - 1)) * RECORD_SIZE;
+        }
+
+        int count() {
+            return (int) INT.getAcquire(header, COUNT_OFFSET);
+        }
+
+        boolean moved() {
+            return (int) INT.getAcquire(header, MOVED_OFFSET) != 0;
+        }
+    }
+
+    private MappedSolutionStore(Path file, Mapping mapping) {
+        this.file = file;
+        this.mapping = mapping;
+    }
+
+    /**
+     * Opens the store at the given path, or creates it if it doesn't exist.
+     * @param capacity the initial number of index entries, which is rounded up to a power of two.
+     *        The store grows by itself, so this only matters when the number of boards is known.
+     */
+    static MappedSolutionStore open(Path file, int capacity) throws IOException {
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        return new MappedSolutionStore(file, map(file, capacity));
+    }
+
+    /**
+     * Returns the lock that is taken before the file lock. A second file lock in the same process would
+     * throw OverlappingFileLockException instead of waiting, so two stores on the same file wait here.
+     */
+    private static ReentrantLock processLock(Path file) {
+        return PROCESS_LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), path -> new ReentrantLock());
+    }
+
+    /** Maps the file, and writes an empty index to it first if it's new. */
+    private static Mapping map(Path file, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ReentrantLock processLock = processLock(file);
+        processLock.lock();
+        try (FileLock lock = channel.lock(0, HEADER_SIZE, false)) {
+            if (channel.size() == 0) {
+                capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+                initialize(channel, capacity);
+            } else {
+                capacity = checkHeader(channel, file);
+            }
+            return new Mapping(channel, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    private static void initialize(FileChannel channel, int capacity) throws IOException {
+        // The rest of the file is sparse, and reads as zeros, i.e. empty index entries
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC_OFFSET, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        header.putInt(CAPACITY_OFFSET, capacity);
+        header.putInt(COUNT_OFFSET, 0);
+        header.putInt(MOVED_OFFSET, 0);
+        channel.write(ByteBuffer.wrap(new byte[1]), Mapping.fileSize(capacity) - 1);
+        header.force();
+    }
+
+    private static int checkHeader(FileChannel channel, Path file) throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getLong(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION)
+            throw new IOException("Not a solution store: " + file);
+        int capacity = header.getInt(CAPACITY_OFFSET);
+        if (Integer.bitCount(capacity) != 1 || channel.size() < Mapping.fileSize(capacity))
+            throw new IOException("Corrupt solution store: " + file);
+        return capacity;
+    }
+
+    /** Returns the current mapping, after reopening the file if another process has replaced it. */
+    private Mapping current() throws IOException {
+        Mapping m = mapping;
+        if (m.moved()) {
+            synchronized (this) {
+                if (mapping == m) {
+                    mapping = map(file, m.capacity);
+                    m.channel.close();
+                }
+                m = mapping;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Looks up a packed board.
+     * @param hash the 64-bit hash of the board, see {@link SolutionCache#fingerprint(byte[])}.
+     * @return the solution, {@link SolutionCache#NO_SOLUTION}, or null if the board isn't stored.
+     */
+    String get(byte[] board, long hash) throws IOException {
+        Mapping m = current();
+        int record = find(m, board, hash);
+        if (record < 0)
+            return null;
+
+        MappedByteBuffer chunk = m.recordChunk(record);
+        int offset = m.recordOffset(record);
+        if (chunk.get(offset) == UNSOLVABLE)
+            return SolutionCache.NO_SOLUTION;
+
+        char[] solution = new char[81];
+        offset += 1 + BOARD_SIZE;
+        for (int i = 0; i < 81; i++)
+            solution[i] = (char) ('0' + ((chunk.get(offset + (i >> 1)) >> ((i & 1) << 2)) & 0xF));
+        return new String(solution);
+    }
+
+    /** Returns the record number of the board, or -(slot + 1) of the empty index entry where it would be. */
+    private static int find(Mapping m, byte[] board, long hash) {
+        int mask = m.capacity - 1, tag = (int) (hash >>> 32);
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            MappedByteBuffer chunk = m.indexChunk(slot);
+            int offset = m.indexOffset(slot);
+            int ref = (int) INT.getAcquire(chunk, offset);
+            if (ref == 0)
+                return -(slot + 1);
+            if ((int) INT.get(chunk, offset + 4) == tag && sameBoard(m, ref - 1, board))
+                return ref - 1;
+        }
+    }
+
+    private static boolean sameBoard(Mapping m, int record, byte[] board) {
+        MappedByteBuffer chunk = m.recordChunk(record);
+        int offset = m.recordOffset(record) + 1;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            if (chunk.get(offset + i) != board[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stores a packed board and its solution, unless the board is stored already.
+     * @param solution the packed solution, or null if the board has no solution.
+     * @return false if the board was already stored.
+     */
+    synchronized boolean put(byte[] board, long hash, byte[] solution) throws IOException {
+        ReentrantLock processLock = processLock(file);
+        processLock.lock();
+        try {
+            while (true) {
+                Mapping m = current();
+                FileLock lock = m.channel.lock(0, HEADER_SIZE, false);
+                try {
+                    // Another process might have replaced the file while we waited for the lock
+                    if (m.moved())
+                        continue;
+                    if (find(m, board, hash) >= 0)
+                        return false;
+                    if (m.count() < m.maxRecords) {
+                        append(m, m.count(), board, hash, solution == null ? UNSOLVABLE : SOLVED, solution);
+                        return true;
+                    }
+                    grow(m);
+                } finally {
+                    lock.release();
+                }
+                m.channel.close();
+            }
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    /** Writes a record, then the index entry that points to it. */
+    private static void append(Mapping m, int record, byte[] board, long hash, byte status, byte[] solution) {
+        MappedByteBuffer chunk = m.recordChunk(record);
+        int offset = m.recordOffset(record);
+        chunk.put(offset, status);
+        chunk.put(offset + 1, board);
+        if (solution != null)
+            chunk.put(offset + 1 + BOARD_SIZE, solution);
+
+        int slot = -(find(m, board, hash) + 1);
+        MappedByteBuffer index = m.indexChunk(slot);
+        int entry = m.indexOffset(slot);
+        INT.set(index, entry + 4, (int) (hash >>> 32));
+        INT.setRelease(index, entry, record + 1);
+        INT.setRelease(m.header, COUNT_OFFSET, record + 1);
+    }
+
+    /** Copies all records to a new file with twice the capacity, which then replaces this one.
+     *  The old file is marked as moved, and is closed by the caller once it has released its lock. */
+    private void grow(Mapping old) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        Mapping grown = map(tmp, old.capacity * 2);
+
+        byte[] board = new byte[BOARD_SIZE], solution = new byte[BOARD_SIZE];
+        int count = old.count();
+        for (int record = 0; record < count; record++) {
+            MappedByteBuffer chunk = old.recordChunk(record);
+            int offset = old.recordOffset(record);
+            byte status = chunk.get(offset);
+            chunk.get(offset + 1, board);
+            chunk.get(offset + 1 + BOARD_SIZE, solution);
+            append(grown, record, board, SolutionCache.fingerprint(board), status,
+                    status == SOLVED ? solution : null);
+        }
+        grown.header.force();
+        for (MappedByteBuffer chunk : grown.index)
+            chunk.force();
+        for (MappedByteBuffer chunk : grown.records)
+            chunk.force();
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mapping = grown;
+        INT.setRelease(old.header, MOVED_OFFSET, 1);
+    }
+
+    /** Forces everything that was written to the store to disk. */
+    synchronized void force() throws IOException {
+        Mapping m = current();
+        for (MappedByteBuffer chunk : m.records)
+            chunk.force();
+        for (MappedByteBuffer chunk : m.index)
+            chunk.force();
+        m.header.force();
+    }
+
+    /** Returns the number of stored boards. */
+    int size() throws IOException {
+        return current().count();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapping.channel.close();
+    }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Where the solvers and the cache report what they do, for example to {@link JmxMetrics}.
+ *
+ * Nothing is reported until a listener is installed. Until then the cost is one volatile read per
+ * solve or cache access, the counting during the search is done either way.
+ */
+public final class Metrics {
+
+    /** Receives the numbers of every solve and cache access. Called from every solving thread,
+     *  so implementations must be thread-safe, and fast since they're called on the hot path. */
+    public interface Listener {
+        /**
+         * Called at the end of every solve() and bounded solve.
+         * @param engine the name of the engine, as in {@link EngineRegistry}.
+         * @param nodes the nodes the search explored, 0 for engines that don't count them.
+         * @param backtracks the guesses that turned out wrong.
+         * @param maxDepth the depth of the deepest node.
+         * @param propagations the cells filled in without guessing.
+         */
+        void solved(String engine, long nanos, long nodes, long backtracks, int maxDepth, long propagations);
+
+        /** Called for every lookup in a {@link SolutionCache}. */
+        void cacheLookup(boolean hit, long nanos);
+
+        /** Called for every solution stored in a {@link SolutionCache}. */
+        void cacheStore(long nanos);
+    }
+
+    private static volatile Listener listener;
+
+    private Metrics() {}
+
+    /** Sends everything that is reported from now on to the given listener, or nowhere if it's null. */
+    public static void install(Listener listener) {
+        Metrics.listener = listener;
+    }
+
+    /** Returns the installed listener, or null if there is none. */
+    static Listener listener() {
+        return listener;
+    }
+
+    /** Reports the latency of an engine that doesn't count its nodes. */
+    static void solved(String engine, long nanos) {
+        Listener l = listener;
+        if (l != null)
+            l.solved(engine, nanos, 0, 0, 0, 0);
+    }
+
+}
@@ -0,0 +1,191 @@
+import java.util.Arrays;
+
+/**
+ * A board packed into 81 nibbles, 16 cells per long, with 0 for empty cells.
+ *
+ * Copying a board is a copy of six longs, and the 64-bit Zobrist hash is kept up to date on every
+ * change, so boards can be copied and used as keys without allocating anything. A board is a
+ * {@link CharSequence} of its 81-character form (see {@link SudokuSolver#load(CharSequence)}), so it can
+ * be passed to the solvers and the cache as it is.
+ *
+ * Boards don't check the rules of sudoku, only that every cell is 0-9. They are not thread-safe.
+ */
+public final class PackedBoard implements CharSequence {
+
+    /** Random numbers for every value (0-9) of every cell, the hash is the xor of those on the board. */
+    private static final long[] ZOBRIST = new long[81 * 10];
+
+    static {
+        long seed = 0x5EED5D0C0L;
+        for (int i = 0; i < ZOBRIST.length; i++) {
+            // SplitMix64
+            long z = (seed += 0x9e3779b97f4a7c15L);
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            ZOBRIST[i] = z ^ (z >>> 31);
+        }
+    }
+
+    /** Hash of the empty board. */
+    private static final long EMPTY_HASH;
+
+    static {
+        long hash = 0;
+        for (int cell = 0; cell < 81; cell++)
+            hash ^= ZOBRIST[cell * 10];
+        EMPTY_HASH = hash;
+    }
+
+    /** Cell i is nibble (i % 16) of words[i / 16]. */
+    private final long[] words = new long[6];
+    private long hash = EMPTY_HASH;
+
+    /** Creates an empty board. */
+    public PackedBoard() {}
+
+    /**
+     * Reads a board in the 81-character format, with 0 or '.' for empty cells.
+     * @throws IllegalArgumentException if the board has the wrong length or characters.
+     */
+    public static PackedBoard parse(CharSequence board) throws IllegalArgumentException {
+        if (board.length() != 81)
+            throw new IllegalArgumentException(String.format("Board must be 81 characters, was %s\n", board.length()));
+        PackedBoard packed = new PackedBoard();
+        for (int cell = 0; cell < 81; cell++) {
+            char ch = board.charAt(cell);
+            if (ch == '.')
+                continue;
+            if (ch < '0' || ch > '9')
+                throw new IllegalArgumentException(String.format("Invalid character '%s' at %s\n", ch, cell));
+            packed.set(cell, ch - '0');
+        }
+        return packed;
+    }
+
+    /** Copies the board of a solver. */
+    public static PackedBoard of(SudokuSolver solver) {
+        PackedBoard packed = new PackedBoard();
+        for (int cell = 0; cell < 81; cell++)
+            packed.set(cell, solver.getCell(cell / 9, cell % 9));
+        return packed;
+    }
+
+    /** Returns the value (0-9) of a cell, indexed row * 9 + col. */
+    public int get(int cell) {
+        return (int) (words[cell >>> 4] >>> ((cell & 15) << 2)) & 0xF;
+    }
+
+    public int get(int row, int col) {
+        return get(row * 9 + col);
+    }
+
+    /**
+     * Sets a cell, indexed row * 9 + col, to 1-9 or 0 for empty.
+     * @throws IllegalArgumentException if the cell or value is out of range.
+     */
+    public void set(int cell, int value) throws IllegalArgumentException {
+        if (cell < 0 || cell > 80 || value < 0 || value > 9)
+            throw new IllegalArgumentException(String.format("Failed to put %s at %s!\n", value, cell));
+        int shift = (cell & 15) << 2;
+        long word = words[cell >>> 4];
+        int old = (int) (word >>> shift) & 0xF;
+        words[cell >>> 4] = (word & ~(0xFL << shift)) | ((long) value << shift);
+        hash ^= ZOBRIST[cell * 10 + old] ^ ZOBRIST[cell * 10 + value];
+    }
+
+    public void set(int row, int col, int value) throws IllegalArgumentException {
+        set(row * 9 + col, value);
+    }
+
+    /** Empties every cell. */
+    public void clear() {
+        Arrays.fill(words, 0);
+        hash = EMPTY_HASH;
+    }
+
+    /** Makes this board a copy of the other one, without allocating anything. */
+    public void copyFrom(PackedBoard other) {
+        System.arraycopy(other.words, 0, words, 0, 6);
+        hash = other.hash;
+    }
+
+    public PackedBoard copy() {
+        PackedBoard copy = new PackedBoard();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /** Returns the 64-bit Zobrist hash of the board, which is kept up to date by set(). */
+    public long zobrist() {
+        return hash;
+    }
+
+    /** Returns the number of cells that aren't empty. */
+    public int clues() {
+        int clues = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            if (get(cell) != 0)
+                clues++;
+        }
+        return clues;
+    }
+
+    /**
+     * Returns the board as 41 bytes, two cells per byte with the first cell in the low nibble.
+     * This is the same layout as the keys of {@link SolutionCache}.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[41];
+        for (int i = 0; i < 41; i++)
+            bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+        return bytes;
+    }
+
+    /** Reads a board written by toBytes(). */
+    public static PackedBoard fromBytes(byte[] bytes) {
+        PackedBoard packed = new PackedBoard();
+        for (int cell = 0; cell < 81; cell++)
+            packed.set(cell, (bytes[cell >> 1] >> ((cell & 1) << 2)) & 0xF);
+        return packed;
+    }
+
+    @Override
+    public int length() {
+        return 81;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index > 80)
+            throw new IndexOutOfBoundsException(index);
+        return (char) ('0' + get(index));
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /** Returns the board in the 81-character format. */
+    @Override
+    public String toString() {
+        char[] text = new char[81];
+        for (int cell = 0; cell < 81; cell++)
+            text[cell] = (char) ('0' + get(cell));
+        return new String(text);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof PackedBoard))
+            return false;
+        PackedBoard other = (PackedBoard) obj;
+        return hash == other.hash && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
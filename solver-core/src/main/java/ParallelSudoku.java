@@ -0,0 +1,184 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sudoku-solver that searches for a solution on several threads.
+ *
+ * The top levels of the search tree are split into {@link ForkJoinPool} tasks, one for every
+ * candidate of the most constrained cell, and every task gets its own copy of the board.
+ * Below the split depth, each task runs the sequential search of {@link BitmaskSudoku}.
+ * The first task that finds a solution stops all the others the same way stopSolve() does.
+ */
+public class ParallelSudoku implements SudokuSolver {
+
+    /** Default number of branching levels that are split into tasks. */
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    /** Boards with fewer empty cells than this are never split, since they are solved faster than
+     *  a task can be stolen by another thread. */
+    private static final int MIN_EMPTY_CELLS = 30;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    private final BitmaskSudoku board = new BitmaskSudoku();
+    private BitmaskSudoku solution;
+
+    /** Cleared when a solution is found, which stops the other tasks. */
+    private volatile boolean running;
+    /** Set by stopSolve(), and cleared when a solve ends or a board is loaded, so that a stop
+     *  that comes just before a solve still stops it. */
+    private volatile boolean stopped;
+
+    public ParallelSudoku() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * @param pool the pool that runs the tasks.
+     * @param splitDepth the number of branching levels that are split into tasks. A higher depth gives
+     *        more, but smaller, tasks for idle threads to steal. 0 means that the search isn't split at all.
+     */
+    public ParallelSudoku(ForkJoinPool pool, int splitDepth) {
+        if (splitDepth < 0)
+            throw new IllegalArgumentException("Split depth can't be negative: " + splitDepth);
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    /** A solver with its own copy of the board, which stops when this solver is stopped. */
+    private class Worker extends BitmaskSudoku {
+        Worker() {
+            super(null);        // The whole solve is reported, not the parts
+        }
+
+        @Override
+        boolean isRunning() {
+            return running && !stopped && super.isRunning();
+        }
+    }
+
+    /** Searches one subtree, either by splitting it further or by searching it sequentially. */
+    private class Branch extends RecursiveAction {
+        private final Worker worker;
+        private final int depth;
+
+        Branch(Worker worker, int depth) {
+            this.worker = worker;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (!running || stopped)
+                return;
+
+            if (depth >= splitDepth || emptyCells(worker) < MIN_EMPTY_CELLS) {
+                if (worker.solve())
+                    found(worker);
+                return;
+            }
+
+            if (!worker.propagate())
+                return;
+            int cell = worker.mostConstrainedCell();
+            if (cell == -1) {
+                found(worker);
+                return;
+            }
+
+            int mask = worker.candidates(cell);
+            Branch[] branches = new Branch[Integer.bitCount(mask)];
+            for (int i = 0; mask != 0; i++) {
+                int bit = mask & -mask;
+                mask ^= bit;
+                Worker child = new Worker();
+                child.copyFrom(worker);
+                child.push(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                branches[i] = new Branch(child, depth + 1);
+            }
+            invokeAll(branches);
+        }
+    }
+
+    private static int emptyCells(BitmaskSudoku sudoku) {
+        int empty = 0;
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                if (sudoku.getCell(r, c) == 0)
+                    empty++;
+            }
+        }
+        return empty;
+    }
+
+    /** Keeps the first solution that is found and stops every other task. */
+    private synchronized void found(Worker worker) {
+        if (solution == null) {
+            solution = worker;
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean solve() {
+        running = true;
+        solution = null;
+        long t0 = System.nanoTime();
+
+        Worker root = new Worker();
+        root.copyFrom(board);
+        pool.invoke(new Branch(root, 0));
+        running = false;
+        stopped = false;
+        Metrics.solved("parallel", System.nanoTime() - t0);
+
+        synchronized (this) {
+            if (solution == null)
+                return false;
+            board.copyFrom(solution);
+            solution = null;
+        }
+        return true;
+    }
+
+    /** Stops the current attempt to solve the board, or the next one if it hasn't started yet.
+     *  This should be called from a different thread. */
+    @Override
+    public void stopSolve() {
+        stopped = true;
+    }
+
+    @Override
+    public void clear() {
+        board.clear();
+        stopped = false;
+    }
+
+    @Override
+    public void setCell(int row, int col, int val) throws IllegalArgumentException {
+        board.setCell(row, col, val);
+    }
+
+    @Override
+    public int getCell(int row, int col) throws IllegalArgumentException {
+        return board.getCell(row, col);
+    }
+
+    @Override
+    public void load(CharSequence puzzle) throws IllegalArgumentException {
+        board.load(puzzle);
+        stopped = false;
+    }
+
+    @Override
+    public String stringify() {
+        return board.stringify();
+    }
+
+    /** Returns a visual representation of the board */
+    public String toString() {
+        return board.toString();
+    }
+
+}
@@ -0,0 +1,221 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates puzzles with exactly one solution.
+ *
+ * A random full grid is made by filling the three boxes on the diagonal with random digits, which
+ * can't break any rule since they share no rows or columns, and solving the rest. Then clues are
+ * removed in random order, and every removal is undone unless the puzzle still has one solution,
+ * which is checked by searching for a second one with a {@link BitmaskSudoku}. The removal stops at the
+ * requested number of clues, or when no clue can be removed.
+ *
+ * The difficulty of a puzzle is the number of nodes the search needs to prove that the solution is
+ * unique, see {@link Difficulty}.
+ *
+ * A generator is used by one thread at a time, and allocates nothing but the strings it returns.
+ * {@link #generate(int, int, Difficulty, long)} generates many puzzles on all cores.
+ */
+public final class PuzzleGenerator {
+
+    /** The fewest clues a puzzle with one solution can have. */
+    public static final int MIN_CLUES = 17;
+    /** Attempts at a puzzle with the requested clues or difficulty, before the closest one is returned. */
+    static final int MAX_ATTEMPTS = 200;
+    /** Puzzles generated by every generator in {@link #generate(int, int, Difficulty, long)}. */
+    private static final int CHUNK = 64;
+
+    public enum Difficulty {
+        /** Solved by filling in singles, without guessing. */
+        EASY(1),
+        /** Needs a few guesses. */
+        MEDIUM(9),
+        /** Needs many guesses. */
+        HARD(Long.MAX_VALUE);
+
+        /** The most nodes the search needs on puzzles of this difficulty. */
+        final long maxNodes;
+
+        Difficulty(long maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        static Difficulty of(long nodes) {
+            for (Difficulty difficulty : values()) {
+                if (nodes <= difficulty.maxNodes)
+                    return difficulty;
+            }
+            return HARD;
+        }
+    }
+
+    private final SplittableRandom random;
+    private final BitmaskSudoku board = new BitmaskSudoku();
+    private final int[] grid = new int[81], puzzle = new int[81], best = new int[81];
+    private final int[] order = new int[81], digits = new int[9];
+    private final char[] text = new char[81];
+    private long nodes;
+
+    public PuzzleGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /** Creates a generator that always generates the same puzzles for the same seed. */
+    public PuzzleGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private PuzzleGenerator(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /** Generates a puzzle from which no clue can be removed. */
+    public String generate() {
+        attempt(MIN_CLUES);
+        return text();
+    }
+
+    /**
+     * Generates a puzzle with the given number of clues, or as close above it as could be found.
+     * @throws IllegalArgumentException if clues is not between {@value #MIN_CLUES} and 81.
+     */
+    public String generate(int clues) {
+        return generate(clues, null);
+    }
+
+    /** Generates a puzzle of the given difficulty from which no clue can be removed,
+     *  or the closest one that could be found. */
+    public String generate(Difficulty difficulty) {
+        return generate(MIN_CLUES, difficulty, false);
+    }
+
+    /**
+     * Generates a puzzle with the given number of clues and difficulty. If there is no such puzzle among
+     * the attempts, the one closest to the difficulty is returned, and of those the one with the fewest clues.
+     * Hard puzzles are rare, and more so with many clues.
+     * @param difficulty the difficulty, or null for any.
+     * @throws IllegalArgumentException if clues is not between {@value #MIN_CLUES} and 81.
+     */
+    public String generate(int clues, Difficulty difficulty) {
+        if (clues < MIN_CLUES || clues > 81)
+            throw new IllegalArgumentException(String.format("Can't generate a puzzle with %s clues\n", clues));
+        return generate(clues, difficulty, true);
+    }
+
+    /** @param exact if false, any number of clues down to the given ones will do. */
+    private String generate(int clues, Difficulty difficulty, boolean exact) {
+        int bestClues = 82;
+        long bestDistance = Long.MAX_VALUE, bestNodes = 0;
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            int count = attempt(clues);
+            long distance = difficulty == null ? 0 : distance(difficulty, nodes);
+            if (distance < bestDistance || (distance == bestDistance && count < bestClues)) {
+                bestClues = count;
+                bestDistance = distance;
+                bestNodes = nodes;
+                System.arraycopy(puzzle, 0, best, 0, 81);
+            }
+            if (distance == 0 && (count == clues || !exact))
+                break;
+        }
+        System.arraycopy(best, 0, puzzle, 0, 81);
+        nodes = bestNodes;
+        return text();
+    }
+
+    /** How far the nodes are from the difficulty, 0 if they're within it. */
+    private static long distance(Difficulty difficulty, long nodes) {
+        int ordinal = difficulty.ordinal();
+        long min = ordinal == 0 ? 0 : Difficulty.values()[ordinal - 1].maxNodes + 1;
+        return nodes < min ? min - nodes : Math.max(0, nodes - difficulty.maxNodes);
+    }
+
+    /** Returns the difficulty of the last puzzle generated. */
+    public Difficulty difficulty() {
+        return Difficulty.of(nodes);
+    }
+
+    /**
+     * Makes a full grid and removes clues from it, until there are no more than the given clues left
+     * or no clue can be removed. The puzzle is left in puzzle[], and the nodes needed to prove that it has
+     * one solution in nodes.
+     * @return the number of clues.
+     */
+    private int attempt(int clues) {
+        fillGrid();
+        board.clear();
+        for (int cell = 0; cell < 81; cell++) {
+            board.setCell(cell / 9, cell % 9, grid[cell]);
+            order[cell] = cell;
+        }
+        shuffle(order, 81);
+
+        int count = 81;
+        nodes = 1;
+        for (int i = 0; i < 81 && count > clues; i++) {
+            int cell = order[i];
+            board.setCell(cell / 9, cell % 9, 0);
+            if (board.countSolutions(2) == 1) {
+                count--;
+                nodes = board.nodes();
+            } else {
+                board.setCell(cell / 9, cell % 9, grid[cell]);
+            }
+        }
+        for (int cell = 0; cell < 81; cell++)
+            puzzle[cell] = board.getCell(cell / 9, cell % 9);
+        return count;
+    }
+
+    /** Fills grid[] with a random solved sudoku. */
+    private void fillGrid() {
+        board.clear();
+        for (int box = 0; box < 9; box += 4) {
+            for (int i = 0; i < 9; i++)
+                digits[i] = i + 1;
+            shuffle(digits, 9);
+            for (int i = 0; i < 9; i++)
+                board.setCell((box / 3) * 3 + i / 3, (box % 3) * 3 + i % 3, digits[i]);
+        }
+        if (!board.solve())
+            throw new IllegalStateException("The diagonal boxes can always be completed");
+        for (int cell = 0; cell < 81; cell++)
+            grid[cell] = board.getCell(cell / 9, cell % 9);
+    }
+
+    private void shuffle(int[] values, int length) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private String text() {
+        for (int cell = 0; cell < 81; cell++)
+            text[cell] = (char) ('0' + puzzle[cell]);
+        return new String(text);
+    }
+
+    /**
+     * Generates many puzzles on all cores, see {@link #generate(int, Difficulty)}.
+     * The puzzles only depend on the seed, not on the number of cores.
+     */
+    public static String[] generate(int count, int clues, Difficulty difficulty, long seed) {
+        String[] puzzles = new String[count];
+        SplittableRandom root = new SplittableRandom(seed);
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        long[] seeds = new long[chunks];
+        for (int i = 0; i < chunks; i++)
+            seeds[i] = root.nextLong();
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            PuzzleGenerator generator = new PuzzleGenerator(seeds[chunk]);
+            for (int i = chunk * CHUNK; i < Math.min(count, (chunk + 1) * CHUNK); i++)
+                puzzles[i] = generator.generate(clues, difficulty);
+        });
+        return puzzles;
+    }
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Well-known puzzles, written row by row as 81 characters with 0 for empty cells.
+ * Used when comparing the different solver-engines against each other.
+ */
+final class Puzzles {
+
+    /** Puzzles with a single solution that can be solved by filling in singles only. */
+    static final String[] EASY = {
+            // Project Euler 96, grid 01
+            "003020600900305001001806400008102900700000008006708200002609500800203009005010300",
+            // Project Euler 96, grid 02
+            "200080300060070084030500209000105408000000000402706000301007040720040060004010003",
+            "000000907000420180000705026100904000050000040000507009920108000034059000507000000",
+            "030050040008010500460000012070502080000603000040109030250000098001020600080060020",
+    };
+
+    /** Puzzles with a single solution that are known to be hard, both for humans and for solvers. */
+    static final String[] HARD = {
+            // AI Escargot
+            "100007090030020008009600500005300900010080002600004000300000010040000007007000300",
+            // Arto Inkala, 2010
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400",
+            // Golden Nugget
+            "000000039000001005003050800008090006070002000100400000009080050020000600400700000",
+            // Easter Monster
+            "100000002090400050006000700050903000000070000000850040700000600030009080002000001",
+            // Hardest puzzle for Peter Norvig's solver
+            "400000805030000000000700000020000060000080400000010000000603070500200000104000000",
+            // Platinum Blonde
+            "000000012000000003002300400001800005060070800000009000008500000900040500470006000",
+            // 17 clues
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000",
+    };
+
+    /**
+     * Puzzles that are built to be slow for some kind of solver rather than hard for humans.
+     * Norvig's impossible puzzle (000005080000601043...) is left out on purpose, since the
+     * reference solver doesn't finish it in any reasonable time.
+     */
+    static final String[] PATHOLOGICAL = {
+            // The first row is 987654321 in the solution, which is the worst case for left-to-right backtracking
+            "000000000000003085001020000000507000004000100090000000500000073002010000000040009",
+            // Peter Norvig's puzzle with many solutions, slow for solvers that pick the most constrained cell
+            "000006000059000008200008000045000000003000000006003054000325006000000000000000000",
+            // The empty board
+            "000000000000000000000000000000000000000000000000000000000000000000000000000000000",
+    };
+
+    private Puzzles() {}
+
+}
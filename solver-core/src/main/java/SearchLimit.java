@@ -0,0 +1,115 @@
+import java.time.Duration;
+
+/**
+ * The node budget and deadline of a search. The engines count every node they explore here,
+ * so a bounded solve stops on its own, without a watchdog thread to stop it.
+ * The clock is only read every {@link #CLOCK_EVERY} nodes.
+ *
+ * Backtracks, the deepest node and the cells filled by propagation are counted here as well, and are
+ * passed on to the {@link Metrics} listener at the end of a solve, if there is one.
+ */
+final class SearchLimit {
+
+    /** Number of nodes between reads of the clock. */
+    static final int CLOCK_EVERY = 1 << 10;
+
+    /** The name the engine is reported under, or null if it isn't reported. */
+    private final String engine;
+
+    private long nodes, budget, deadline, start;
+    private boolean timed, exceeded;
+    private long backtracks, propagations;
+    private int maxDepth;
+
+    SearchLimit(String engine) {
+        this.engine = engine;
+    }
+
+    /** Starts a search without limits, which still counts its nodes. */
+    void start() {
+        start(Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Starts a search.
+     * @param budget the maximum number of nodes.
+     * @param timeout how long the search may take, or null for no deadline.
+     * @throws IllegalArgumentException if the budget or the timeout is negative.
+     */
+    void start(long budget, Duration timeout) {
+        if (budget < 0 || (timeout != null && timeout.isNegative()))
+            throw new IllegalArgumentException(String.format("Negative limit: %s nodes, %s\n", budget, timeout));
+        this.start = System.nanoTime();
+        this.budget = budget;
+        this.timed = timeout != null;
+        this.deadline = timed ? start + nanos(timeout) : 0;
+        nodes = 0;
+        exceeded = false;
+        backtracks = 0;
+        propagations = 0;
+        maxDepth = 0;
+    }
+
+    /** Returns the timeout in nanoseconds, capped so that it can be added to System.nanoTime(). */
+    private static long nanos(Duration timeout) {
+        Duration max = Duration.ofNanos(Long.MAX_VALUE / 4);
+        return timeout.compareTo(max) > 0 ? max.toNanos() : timeout.toNanos();
+    }
+
+    /**
+     * Counts a node at the given depth of the search.
+     * @return false if the node is over the budget or the deadline has passed, in which case
+     *         the search must stop without exploring it.
+     */
+    boolean node(int depth) {
+        if (depth > maxDepth)
+            maxDepth = depth;
+        if (nodes == budget || (timed && (nodes & (CLOCK_EVERY - 1)) == 0
+                && System.nanoTime() - deadline >= 0)) {
+            exceeded = true;
+            return false;
+        }
+        nodes++;
+        return true;
+    }
+
+    /** Counts a guess that turned out wrong. */
+    void backtrack() {
+        backtracks++;
+    }
+
+    /** Counts a cell filled without guessing. */
+    void propagated() {
+        propagations++;
+    }
+
+    long nodes() {
+        return nodes;
+    }
+
+    /** Returns true if the last search was stopped by the budget or the deadline. */
+    boolean exceeded() {
+        return exceeded;
+    }
+
+    /** Reports the search to the metrics listener, if there is one. */
+    void finish() {
+        Metrics.Listener listener = Metrics.listener();
+        if (listener != null && engine != null)
+            listener.solved(engine, System.nanoTime() - start, nodes, backtracks, maxDepth, propagations);
+    }
+
+    /**
+     * Turns the end of a search into a result, and reports it.
+     * @param solution the solution the search found, or null.
+     * @param stopped if the search was stopped with stopSolve().
+     */
+    SolveResult result(String solution, boolean stopped) {
+        finish();
+        SolveResult.Outcome outcome = solution != null ? SolveResult.Outcome.SOLVED
+                : exceeded || stopped ? SolveResult.Outcome.TIMED_OUT
+                : SolveResult.Outcome.UNSOLVABLE;
+        return new SolveResult(outcome, solution, nodes, System.nanoTime() - start);
+    }
+
+}
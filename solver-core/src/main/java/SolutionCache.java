@@ -0,0 +1,441 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of solved boards, shared by every solver in the process.
+ *
+ * Boards are kept in memory as {@link PackedBoard}s in bounded LRU maps, in front of a
+ * {@link MappedSolutionStore} on disk that holds every board ever solved.
+ * The memory is split into up to {@value #STRIPES} stripes by the hash of the board, each with a lock
+ * of its own, so solvers on different threads rarely wait for each other. Every stripe evicts its own
+ * least recently used board, and caches too small to split have a single stripe.
+ * The store is created next to the old text table (one "board solution" pair per line, with X
+ * for boards without solution), and the boards of the text table are imported into it the first time.
+ * Solutions reach the store through a {@link SolutionJournal} next to it, which writes them behind the
+ * solvers and puts back what the store lost in a crash when it's opened again.
+ * The store of {@link #shared()} is opened on a background thread, and until it's open the cache is
+ * only kept in memory, so no solver waits for the disk. The system property {@value #PATH_PROPERTY}
+ * moves the table, or keeps the shared cache off the file system when it's {@value #MEMORY_ONLY}.
+ *
+ * Boards are stored in the canonical form given by {@link Canonicalizer}, so a board hits the cache
+ * when any relabelled, transposed or shuffled version of it has been solved before. Solutions are
+ * turned back to the layout of the board they were asked for.
+ *
+ * All methods are thread-safe.
+ */
+public final class SolutionCache {
+
+    public static final String DEFAULT_PATH = "sudoku-solver/solutions/table";
+    /** The system property with the path of the shared solution table. */
+    public static final String PATH_PROPERTY = "sudoku.cache";
+    /** The value of {@value #PATH_PROPERTY} that keeps the shared cache in memory. */
+    public static final String MEMORY_ONLY = "memory";
+    /** Added to the path of the text table to get the path of the store. */
+    public static final String STORE_SUFFIX = ".db";
+    /** Added to the path of the text table to get the path of the journal. */
+    public static final String JOURNAL_SUFFIX = ".journal";
+    /** How often the journal is forced to disk by default: after every batch of boards. */
+    public static final Duration DEFAULT_SYNC_INTERVAL = Duration.ZERO;
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    /** Returned by get for boards that are known to have no solution. */
+    public static final String NO_SOLUTION = "X";
+
+    /** Kept in memory for boards without solution. */
+    private static final PackedBoard UNSOLVABLE = new PackedBoard();
+
+    /** Created by the first call to shared(). */
+    private static class Shared {
+        static final SolutionCache INSTANCE = create();
+
+        private static SolutionCache create() {
+            String path = System.getProperty(PATH_PROPERTY, DEFAULT_PATH);
+            if (path.equals(MEMORY_ONLY))
+                return inMemory(DEFAULT_CAPACITY);
+            SolutionCache cache = openInBackground(Paths.get(path), DEFAULT_CAPACITY);
+            // Writes the boards that are still queued for the journal
+            Runtime.getRuntime().addShutdownHook(new Thread(cache::close, "solution-cache-close"));
+            return cache;
+        }
+    }
+
+    /** The maximum number of stripes, must be a power of two. */
+    static final int STRIPES = 16;
+    /** Caches are only split if every stripe gets room for at least this many boards. */
+    private static final int MIN_STRIPE_CAPACITY = 64;
+
+    /** An LRU map, which is locked on itself. */
+    private static final class Stripe extends LinkedHashMap<PackedBoard, PackedBoard> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PackedBoard, PackedBoard> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /** Null until the store is open, and for caches that are only kept in memory. */
+    private volatile MappedSolutionStore store;
+    /** Null until the store is open, or if the journal couldn't be opened, and then boards go
+     *  straight to the store. */
+    private volatile SolutionJournal journal;
+    /** The path of the journal, if this cache has it open. */
+    private Path journalPath;
+    /** The journals open in this process. A second cache on a table writes straight to the store instead. */
+    private static final Set<Path> OPEN_JOURNALS = ConcurrentHashMap.newKeySet();
+    /** Completed once there is nothing more to open. */
+    private final CompletableFuture<Void> opened;
+    private final Stripe[] stripes;
+
+    private SolutionCache(int capacity, boolean opening) {
+        this.opened = opening ? new CompletableFuture<>() : CompletableFuture.completedFuture(null);
+        int count = Integer.highestOneBit(Math.max(1, Math.min(STRIPES, capacity / MIN_STRIPE_CAPACITY)));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++)
+            stripes[i] = new Stripe(capacity / count);
+    }
+
+    private Stripe stripe(PackedBoard key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    /** Returns the cache of the default solution table, which starts to open the first time this is called. */
+    public static SolutionCache shared() {
+        return Shared.INSTANCE;
+    }
+
+    /** Returns a cache that is only kept in memory. */
+    public static SolutionCache inMemory(int capacity) {
+        return new SolutionCache(capacity, false);
+    }
+
+    /**
+     * Opens the store of the given solution table. If the store doesn't exist yet, it's created
+     * and the boards of the text table are imported into it, except those that are duplicated or
+     * break the rules of sudoku. If the store can't be opened, the cache is only kept in memory.
+     * The journal is forced to disk every {@link #DEFAULT_SYNC_INTERVAL}.
+     * @param capacity the maximum number of boards kept in memory.
+     */
+    public static SolutionCache open(Path table, int capacity) {
+        return open(table, capacity, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * Like {@link #open(Path, int)}, with the interval the journal is forced to disk at.
+     * @param syncInterval ZERO to force every batch of boards, or null to leave it to the OS.
+     */
+    public static SolutionCache open(Path table, int capacity, Duration syncInterval) {
+        SolutionCache cache = new SolutionCache(capacity, false);
+        cache.openStore(table, capacity, syncInterval);
+        return cache;
+    }
+
+    /**
+     * Like {@link #open(Path, int)}, but returns at once and opens the store on a background thread.
+     * Until the store is open, boards are only looked up and stored in memory.
+     */
+    public static SolutionCache openInBackground(Path table, int capacity) {
+        SolutionCache cache = new SolutionCache(capacity, true);
+        Thread thread = new Thread(() -> {
+            try {
+                cache.openStore(table, capacity, DEFAULT_SYNC_INTERVAL);
+            } finally {
+                cache.opened.complete(null);
+            }
+        }, "solution-cache-open");
+        thread.setDaemon(true);
+        thread.start();
+        return cache;
+    }
+
+    /** Opens the store and then its journal, and leaves them null if they can't be opened. */
+    private void openStore(Path table, int capacity, Duration syncInterval) {
+        Path path = table.resolveSibling(table.getFileName() + STORE_SUFFIX);
+        MappedSolutionStore store;
+        try {
+            boolean created = !Files.exists(path);
+            store = MappedSolutionStore.open(path, capacity);
+            if (created && Files.exists(table))
+                importTable(table, store);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        this.store = store;
+
+        Path journalPath = table.resolveSibling(table.getFileName() + JOURNAL_SUFFIX).toAbsolutePath().normalize();
+        if (!OPEN_JOURNALS.add(journalPath))
+            return;
+        try {
+            SolutionJournal journal = SolutionJournal.open(journalPath, store, syncInterval);
+            this.journalPath = journalPath;
+            this.journal = journal;       // Publishes journalPath too
+        } catch (IOException e) {
+            OPEN_JOURNALS.remove(journalPath);
+            e.printStackTrace();
+        }
+    }
+
+    /** Completes when the store is open, or has failed to open and the cache stays in memory. */
+    public CompletableFuture<Void> opened() {
+        return opened;
+    }
+
+    private static void importTable(Path table, MappedSolutionStore store) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(table, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 2 || !isValid(parts[0], parts[1]))
+                    continue;
+                Canonicalizer.Transform transform = Canonicalizer.canonicalize(parts[0]);
+                byte[] board = pack(transform.board());
+                boolean solved = !NO_SOLUTION.equals(parts[1]);
+                store.put(board, fingerprint(board), solved ? pack(transform.apply(parts[1])) : null);
+            }
+        }
+    }
+
+    /**
+     * Looks up a board, first in memory and then in the store.
+     * @return the solution, {@link #NO_SOLUTION} if the board is known to have no solution,
+     *         or null if the board isn't in the cache.
+     */
+    public String get(CharSequence board) {
+        Metrics.Listener listener = Metrics.listener();
+        if (listener == null)
+            return lookup(board);
+        long t0 = System.nanoTime();
+        String solution = lookup(board);
+        listener.cacheLookup(solution != null, System.nanoTime() - t0);
+        return solution;
+    }
+
+    private String lookup(CharSequence board) {
+        if (!isBoard(board))
+            return null;
+        Canonicalizer.Transform transform = Canonicalizer.canonicalize(board);
+        PackedBoard key = PackedBoard.parse(transform.board());
+        PackedBoard solution;
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            solution = stripe.get(key);
+        }
+        if (solution != null)
+            return solution == UNSOLVABLE ? NO_SOLUTION : transform.invert(solution);
+        MappedSolutionStore store = this.store;
+        if (store == null)
+            return null;
+
+        try {
+            byte[] packed = key.toBytes();
+            String stored = store.get(packed, fingerprint(packed));
+            if (stored == null)
+                return null;
+            put(key, stored);
+            return NO_SOLUTION.equals(stored) ? NO_SOLUTION : transform.invert(stored);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Stores the solution of a board, both in memory and in the store.
+     * Boards that are in the store already are not written again.
+     * @param solution the solved board, or null if the board has no solution.
+     */
+    public void put(CharSequence board, String solution) {
+        Metrics.Listener listener = Metrics.listener();
+        if (listener == null) {
+            write(board, solution);
+            return;
+        }
+        long t0 = System.nanoTime();
+        write(board, solution);
+        listener.cacheStore(System.nanoTime() - t0);
+    }
+
+    private void write(CharSequence board, String solution) {
+        if (!isBoard(board) || (solution != null && !isBoard(solution)))
+            throw new IllegalArgumentException("Not an 81-character board: " + board + " " + solution);
+
+        Canonicalizer.Transform transform = Canonicalizer.canonicalize(board);
+        if (solution != null)
+            solution = transform.apply(solution);
+        PackedBoard key = PackedBoard.parse(transform.board());
+        put(key, solution == null ? NO_SOLUTION : solution);
+        MappedSolutionStore store = this.store;
+        if (store == null)
+            return;
+        byte[] packed = key.toBytes();
+        long hash = fingerprint(packed);
+        byte[] packedSolution = solution == null ? null : pack(solution);
+        try {
+            // Boards that are in the store already are not written again
+            if (store.get(packed, hash) != null)
+                return;
+            SolutionJournal journal = this.journal;
+            if (journal != null) {
+                try {
+                    journal.append(packed, packedSolution);
+                    return;
+                } catch (IllegalStateException e) {
+                    // Closed, so the board goes straight to the store
+                }
+            }
+            store.put(packed, hash, packedSolution);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void put(PackedBoard key, String solution) {
+        PackedBoard value = NO_SOLUTION.equals(solution) ? UNSOLVABLE : PackedBoard.parse(solution);
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Waits until every board that was stored before this call is written to the journal and the store.
+     * The journal is only forced to disk as often as the sync interval says.
+     */
+    public void flush() {
+        SolutionJournal journal = this.journal;
+        if (journal == null)
+            return;
+        try {
+            journal.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes what is left in the journal to the store and closes them both, after which boards are only
+     * kept in memory. Boards stored while the journal closes go straight to the store.
+     */
+    public synchronized void close() {
+        SolutionJournal journal = this.journal;
+        MappedSolutionStore store = this.store;
+        try {
+            if (journal != null) {
+                journal.close();
+                OPEN_JOURNALS.remove(journalPath);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.journal = null;
+        this.store = null;
+        try {
+            if (store != null)
+                store.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Returns the number of boards in the store, or in memory if there is no store.
+     *  Waits for the boards that are still on their way to the store. */
+    public int size() {
+        flush();
+        MappedSolutionStore store = this.store;
+        if (store != null) {
+            try {
+                return store.size();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /** Packs an 81-character board into 41 bytes, two cells per byte. */
+    static byte[] pack(CharSequence board) {
+        byte[] packed = new byte[41];
+        for (int i = 0; i < 81; i++)
+            packed[i >> 1] |= (board.charAt(i) - '0') << ((i & 1) << 2);
+        return packed;
+    }
+
+    static String unpack(byte[] packed) {
+        char[] board = new char[81];
+        for (int i = 0; i < 81; i++)
+            board[i] = (char) ('0' + ((packed[i >> 1] >> ((i & 1) << 2)) & 0xF));
+        return new String(board);
+    }
+
+    /** 64-bit FNV-1a hash of a packed board. */
+    static long fingerprint(byte[] packed) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : packed) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static boolean isBoard(CharSequence board) {
+        if (board.length() != 81)
+            return false;
+        for (int i = 0; i < 81; i++) {
+            char ch = board.charAt(i);
+            if (ch < '0' || ch > '9')
+                return false;
+        }
+        return true;
+    }
+
+    /** Checks that a line of the text table follows the rules of sudoku, since older versions
+     *  of the solver could store boards that don't. */
+    private static boolean isValid(String board, String solution) {
+        if (!isBoard(board) || !isValidBoard(board))
+            return false;
+        if (solution.equals(NO_SOLUTION))
+            return true;
+        if (!isBoard(solution) || solution.indexOf('0') >= 0 || !isValidBoard(solution))
+            return false;
+        for (int i = 0; i < 81; i++) {
+            if (board.charAt(i) != '0' && board.charAt(i) != solution.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isValidBoard(String board) {
+        int[] rows = new int[9], cols = new int[9], boxes = new int[9];
+        for (int i = 0; i < 81; i++) {
+            int value = board.charAt(i) - '0';
+            if (value == 0)
+                continue;
+            int bit = 1 << value, r = i / 9, c = i % 9, b = (r / 3) * 3 + c / 3;
+            if (((rows[r] | cols[c] | boxes[b]) & bit) != 0)
+                return false;
+            rows[r] |= bit;
+            cols[c] |= bit;
+            boxes[b] |= bit;
+        }
+        return true;
+    }
+
+}
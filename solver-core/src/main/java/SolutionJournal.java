@@ -0,0 +1,362 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of solved boards, written behind the solvers by a thread of its own.
+ *
+ * {@link #append} only queues the board, so no solver waits for the disk. The writer takes all the
+ * boards that are queued as one batch, appends them to the journal with a single write, forces the
+ * journal to disk as often as the sync interval asks, and then puts them in the {@link MappedSolutionStore}.
+ * The journal is the part that is safe on disk: the store is only mapped, so what the OS hadn't written
+ * of it when the machine went down is put back from the journal when it's opened again.
+ *
+ * Records have a fixed size and end with a CRC32C of the rest:
+ * <pre>
+ *   status, packed board, packed solution, crc
+ * </pre>
+ * Opening the journal replays it into the store and cuts it off at the first record that is incomplete
+ * or doesn't match its CRC, which is what a write cut short by a crash leaves behind.
+ *
+ * Once the journal has grown to {@value #CHECKPOINT_SIZE} bytes, and when it's opened or closed, the store
+ * is forced to disk and the journal is cut back to its header. The journal then only holds the boards
+ * since the last checkpoint, which is all a crash can take from the store.
+ *
+ * Only one journal can be open on a file, in this process or any other.
+ */
+final class SolutionJournal implements Closeable {
+
+    private static final long MAGIC = 0x5355444f4b554a4cL;      // "SUDOKUJL"
+    private static final int HEADER_SIZE = 8;
+
+    private static final int BOARD_SIZE = MappedSolutionStore.BOARD_SIZE;
+    static final int RECORD_SIZE = 1 + 2 * BOARD_SIZE + 4;
+    private static final byte SOLVED = 1, UNSOLVABLE = 2;
+
+    /** The most boards that are queued before append waits for the writer. */
+    static final int QUEUE_SIZE = 1 << 14;
+    /** The most boards written with one write. */
+    private static final int MAX_BATCH = 1024;
+    /** The size of the journal that makes the writer force the store and empty the journal. */
+    static final long CHECKPOINT_SIZE = 1 << 20;
+
+    /** A board that has been solved but not written yet. */
+    private static final class Entry {
+        final byte[] board, solution;
+
+        Entry(byte[] board, byte[] solution) {
+            this.board = board;
+            this.solution = solution;
+        }
+    }
+
+    /** Tells the writer to stop. */
+    private static final Entry STOP = new Entry(null, null);
+
+    private final Path file;
+    private final MappedSolutionStore store;
+    /** How often written boards are forced to disk, ZERO for every batch and null for never. */
+    private final Duration syncInterval;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final ByteBuffer buffer = ByteBuffer.allocate(MAX_BATCH * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+    private final Thread writer;
+
+    /** Holds a lock on the whole file while it's open. */
+    private final FileChannel channel;
+    private long lastSync;
+    private boolean unsynced;
+
+    private final AtomicLong appended = new AtomicLong();
+    /** Guarded by this: the number of boards the writer is done with, written or not. */
+    private long written;
+    /** Appends hold the read lock, so that none is queued after the writer is told to stop. */
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    private SolutionJournal(Path file, FileChannel channel, MappedSolutionStore store, Duration syncInterval) {
+        this.file = file;
+        this.channel = channel;
+        this.store = store;
+        this.syncInterval = syncInterval;
+        this.writer = new Thread(this::run, "solution-journal");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal at the given path, or creates it if it doesn't exist, and replays it into the store.
+     * @param syncInterval how often written boards are forced to disk: ZERO for every batch, or null to leave
+     *        it to the OS, which may lose the last boards if the machine goes down.
+     * @throws IOException if the journal can't be read, isn't a journal, or is open already.
+     */
+    static SolutionJournal open(Path file, MappedSolutionStore store, Duration syncInterval) throws IOException {
+        if (syncInterval != null && syncInterval.isNegative())
+            throw new IllegalArgumentException("Negative sync interval: " + syncInterval);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        SolutionJournal journal = new SolutionJournal(file, channel, store, syncInterval);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("The journal is open already: " + file);
+        }
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        journal.writer.start();
+        return journal;
+    }
+
+    /** Replays the valid records into the store, cuts off the rest, and checkpoints. */
+    private void recover() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() < HEADER_SIZE) {
+            header.putLong(MAGIC).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+        } else {
+            channel.read(header, 0);
+            if (header.getLong(0) != MAGIC)
+                throw new IOException("Not a solution journal: " + file);
+        }
+
+        long end = HEADER_SIZE;
+        long size = channel.size();
+        byte[] board = new byte[BOARD_SIZE], solution = new byte[BOARD_SIZE];
+        buffer.clear();
+        for (long position = HEADER_SIZE; position < size; ) {
+            int read = channel.read(buffer, position);
+            if (read <= 0)
+                break;
+            position += read;
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_SIZE) {
+                int offset = buffer.position();
+                byte status = read(buffer, board, solution);
+                if (status == 0) {
+                    position = size;        // Stops reading at the first broken record
+                    break;
+                }
+                store.put(board, SolutionCache.fingerprint(board), status == SOLVED ? solution : null);
+                end += RECORD_SIZE;
+                buffer.position(offset + RECORD_SIZE);
+            }
+            buffer.compact();
+        }
+
+        buffer.clear();
+        if (end > HEADER_SIZE || end < size)
+            checkpoint();
+        channel.position(HEADER_SIZE);
+    }
+
+    /** Forces the store to disk, after which the journal isn't needed anymore and is cut back to its header. */
+    private void checkpoint() throws IOException {
+        store.force();
+        channel.truncate(HEADER_SIZE);
+        channel.force(true);
+        lastSync = System.nanoTime();
+        unsynced = false;
+    }
+
+    /** Reads a record at the position of the buffer.
+     *  @return the status of the record, or 0 if it's broken. */
+    private byte read(ByteBuffer records, byte[] board, byte[] solution) {
+        int offset = records.position();
+        crc.reset();
+        crc.update(records.array(), records.arrayOffset() + offset, RECORD_SIZE - 4);
+        if ((int) crc.getValue() != records.getInt(offset + RECORD_SIZE - 4))
+            return 0;
+        byte status = records.get(offset);
+        if (status != SOLVED && status != UNSOLVABLE)
+            return 0;
+        records.get(offset + 1, board);
+        records.get(offset + 1 + BOARD_SIZE, solution);
+        return status;
+    }
+
+    /**
+     * Queues a solved board to be written. This only waits if the writer is {@value #QUEUE_SIZE} boards behind.
+     * @param solution the packed solution, or null if the board has no solution.
+     * @throws IllegalStateException if the journal is closed.
+     */
+    void append(byte[] board, byte[] solution) {
+        closing.readLock().lock();
+        try {
+            if (closed)
+                throw new IllegalStateException("The journal is closed");
+            appended.incrementAndGet();
+            queue.put(new Entry(board, solution));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done(1);        // Never comes, so flush doesn't wait for it
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    private synchronized void done(int boards) {
+        written += boards;
+        notifyAll();
+    }
+
+    /** Waits until every board appended before this call is written and in the store. */
+    synchronized void flush() throws InterruptedException {
+        long target = appended.get();
+        while (written < target)
+            wait();
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                Entry first = unsynced ? queue.poll(untilSync(), TimeUnit.NANOSECONDS) : queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+            } catch (InterruptedException e) {
+                stop = true;
+            }
+            if (!batch.isEmpty() && batch.get(batch.size() - 1) == STOP) {
+                batch.remove(batch.size() - 1);
+                stop = true;
+            }
+
+            // The store gets the boards even if the journal can't be written
+            try {
+                write(batch);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            try {
+                for (Entry entry : batch)
+                    store.put(entry.board, SolutionCache.fingerprint(entry.board), entry.solution);
+                if (channel.size() >= CHECKPOINT_SIZE)
+                    checkpoint();
+                else if (unsynced && (stop || untilSync() <= 0))
+                    sync();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            done(batch.size());
+            batch.clear();
+        }
+    }
+
+    /** Returns the nanoseconds until the written boards should be forced to disk. */
+    private long untilSync() {
+        if (syncInterval == null)
+            return Long.MAX_VALUE;
+        return lastSync + syncInterval.toNanos() - System.nanoTime();
+    }
+
+    private void sync() throws IOException {
+        channel.force(false);
+        lastSync = System.nanoTime();
+        unsynced = false;
+    }
+
+    /** Appends the batch to the journal with one write. */
+    private void write(List<Entry> batch) throws IOException {
+        if (batch.isEmpty())
+            return;
+        buffer.clear();
+        for (Entry entry : batch)
+            record(buffer, entry.board, entry.solution);
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        unsynced = syncInterval != null;
+    }
+
+    private void record(ByteBuffer records, byte[] board, byte[] solution) {
+        int offset = records.position();
+        records.put(solution == null ? UNSOLVABLE : SOLVED);
+        records.put(board);
+        if (solution == null) {
+            for (int i = 0; i < BOARD_SIZE; i++)
+                records.put((byte) 0);
+        } else {
+            records.put(solution);
+        }
+        crc.reset();
+        crc.update(records.array(), records.arrayOffset() + offset, RECORD_SIZE - 4);
+        records.putInt((int) crc.getValue());
+    }
+
+    /** Returns the size of the journal in bytes. */
+    long size() throws IOException {
+        return Files.size(file);
+    }
+
+    /**
+     * Writes everything that was appended, stops the writer and checkpoints. The store is left open.
+     * Waits for the writer even if the thread is interrupted, and keeps the interrupt for later.
+     */
+    @Override
+    public void close() throws IOException {
+        closing.writeLock().lock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(STOP);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // The channel would be closed by an interrupt while it's in use
+        if (Thread.interrupted())
+            interrupted = true;
+        try {
+            checkpoint();
+        } finally {
+            channel.close();
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+}
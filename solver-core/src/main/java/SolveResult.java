@@ -0,0 +1,63 @@
+import java.time.Duration;
+
+/**
+ * What a bounded solve ended with: the outcome, the solution if there is one, and how far the search got.
+ * The solution is also left on the board of the solver, as with solve().
+ */
+public final class SolveResult {
+
+    public enum Outcome {
+        /** A solution was found and is on the board. */
+        SOLVED,
+        /** The whole search was done and the board has no solution. */
+        UNSOLVABLE,
+        /** The node budget or the deadline ran out, or the solve was stopped, before the
+         *  search could tell. The board is left as it was. */
+        TIMED_OUT
+    }
+
+    private final Outcome outcome;
+    private final String solution;
+    private final long nodes, nanos;
+
+    /**
+     * @param solution the solved board as 81 digits, must be given if and only if the outcome is SOLVED.
+     * @throws IllegalArgumentException if the solution doesn't match the outcome.
+     */
+    public SolveResult(Outcome outcome, String solution, long nodes, long nanos) {
+        if ((outcome == Outcome.SOLVED) != (solution != null))
+            throw new IllegalArgumentException(String.format("%s with solution %s\n", outcome, solution));
+        this.outcome = outcome;
+        this.solution = solution;
+        this.nodes = nodes;
+        this.nanos = nanos;
+    }
+
+    public Outcome outcome() {
+        return outcome;
+    }
+
+    public boolean isSolved() {
+        return outcome == Outcome.SOLVED;
+    }
+
+    /** Returns the solution as 81 digits, or null if the board wasn't solved. */
+    public String solution() {
+        return solution;
+    }
+
+    /** Returns the number of nodes the search explored, even if it timed out. */
+    public long nodes() {
+        return nodes;
+    }
+
+    public Duration elapsed() {
+        return Duration.ofNanos(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s after %s nodes in %.3f ms", outcome, nodes, nanos / 1e6);
+    }
+
+}
@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves a file of puzzles from the command line, without the GUI:
+ * <pre>java SolverCli puzzles.txt solutions.txt [threads]</pre>
+ *
+ * The input has one puzzle per line, 81 characters with 0 or '.' for empty cells, and the output gets
+ * one line per puzzle in the same order: the solution, or {@value BatchSolver#NO_SOLUTION} if the puzzle
+ * has no solution or can't be read. Empty lines are skipped.
+ *
+ * The input is memory-mapped {@value #WINDOW} bytes at a time, so files larger than the memory (or 2 GB)
+ * are fine, and cut into chunks that are solved on all cores. The solvers read the puzzles straight from
+ * the mapped file and write the solutions to a buffer per chunk, so nothing is allocated per puzzle.
+ * The chunks are written in input order, while a few chunks per thread are solved ahead.
+ * At the end the throughput and the percentiles of the time per puzzle are printed.
+ */
+public final class SolverCli {
+
+    /** The most bytes of the input mapped at a time. */
+    static final int WINDOW = 1 << 26;
+    /** About the number of bytes in a chunk, which is cut at the next line. */
+    static final int CHUNK_BYTES = 1 << 18;
+
+    private static final byte[] NO_SOLUTION = (BatchSolver.NO_SOLUTION + "\n").getBytes();
+
+    /** Counts of the whole run, and the time per puzzle. */
+    public static final class Report {
+        public final long puzzles, solved, nanos;
+        public final LatencyHistogram latencies;
+
+        Report(long puzzles, long solved, long nanos, LatencyHistogram latencies) {
+            this.puzzles = puzzles;
+            this.solved = solved;
+            this.nanos = nanos;
+            this.latencies = latencies;
+        }
+
+        public double puzzlesPerSecond() {
+            return nanos == 0 ? 0 : puzzles * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d puzzles (%d solved) in %.3f s, %.0f puzzles/s%n"
+                            + "latency p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+                    puzzles, solved, nanos / 1e9, puzzlesPerSecond(),
+                    latencies.percentile(50) / 1e3, latencies.percentile(90) / 1e3,
+                    latencies.percentile(99) / 1e3, latencies.percentile(99.9) / 1e3, latencies.max() / 1e3);
+        }
+    }
+
+    /** The solutions of a chunk, ready to be written. */
+    private static final class Chunk {
+        final ByteBuffer output;
+        final int puzzles, solved;
+
+        Chunk(ByteBuffer output, int puzzles, int solved) {
+            this.output = output;
+            this.puzzles = puzzles;
+            this.solved = solved;
+        }
+    }
+
+    private final int threads, window;
+    private final ThreadLocal<BitmaskSudoku> solvers = ThreadLocal.withInitial(BitmaskSudoku::new);
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private SolverCli(int threads, int window) {
+        this.threads = threads;
+        this.window = window;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: java SolverCli <puzzles> <solutions> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        try {
+            System.out.println(solve(Paths.get(args[0]), Paths.get(args[1]), threads));
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Solves every puzzle of the input file and writes the solutions to the output file, which is
+     * replaced if it exists.
+     * @throws IOException if a file can't be read or written, or the input has a line longer than {@value #WINDOW} bytes.
+     */
+    public static Report solve(Path input, Path output, int threads) throws IOException, InterruptedException {
+        return solve(input, output, threads, WINDOW);
+    }
+
+    /** @param window the most bytes of the input mapped at a time. */
+    static Report solve(Path input, Path output, int threads, int window) throws IOException, InterruptedException {
+        if (threads < 1)
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "solver-cli");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return new SolverCli(threads, window).run(input, output, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Report run(Path input, Path output, ExecutorService executor) throws IOException, InterruptedException {
+        long t0 = System.nanoTime();
+        long[] counts = new long[2];
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            for (long position = 0; position < size; ) {
+                int length = (int) Math.min(window, size - position);
+                MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = length;
+                if (position + length < size) {
+                    // Leaves the last line that doesn't fit for the next window
+                    while (end > 0 && mapped.get(end - 1) != '\n')
+                        end--;
+                    if (end == 0)
+                        throw new IOException(String.format("Line longer than %s bytes at %s\n", window, position));
+                }
+
+                for (int from = 0; from < end; ) {
+                    int to = Math.min(end, from + CHUNK_BYTES);
+                    while (to < end && mapped.get(to - 1) != '\n')
+                        to++;
+                    ByteBuffer slice = mapped.slice(from, to - from);
+                    if (pending.size() == 2 * threads)
+                        write(out, pending.poll(), counts);
+                    pending.add(executor.submit(() -> solveChunk(slice)));
+                    from = to;
+                }
+                position += end;
+            }
+            while (!pending.isEmpty())
+                write(out, pending.poll(), counts);
+        }
+        return new Report(counts[0], counts[1], System.nanoTime() - t0, latencies);
+    }
+
+    private static void write(FileChannel out, Future<Chunk> future, long[] counts) throws IOException, InterruptedException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to solve a chunk", e.getCause());
+        }
+        while (chunk.output.hasRemaining())
+            out.write(chunk.output);
+        counts[0] += chunk.puzzles;
+        counts[1] += chunk.solved;
+    }
+
+    /** Solves the lines of a chunk. A line never gets a longer output than itself and its line break,
+     *  so the output fits in one more byte than the input, for a last line without line break. */
+    private Chunk solveChunk(ByteBuffer input) {
+        BitmaskSudoku solver = solvers.get();
+        ByteBuffer output = ByteBuffer.allocate(input.limit() + 1);
+        int puzzles = 0, solved = 0;
+        for (int start = 0; start < input.limit(); ) {
+            int end = start;
+            while (end < input.limit() && input.get(end) != '\n')
+                end++;
+            int next = end + 1;
+            if (end > start && input.get(end - 1) == '\r')
+                end--;
+
+            if (end > start) {
+                long t0 = System.nanoTime();
+                if (end - start == 81 && solver.load(input, start) && solver.solve()) {
+                    solver.write(output);
+                    output.put((byte) '\n');
+                    solved++;
+                } else {
+                    output.put(NO_SOLUTION);
+                }
+                latencies.record(System.nanoTime() - t0);
+                puzzles++;
+            }
+            start = next;
+        }
+        return new Chunk(output.flip(), puzzles, solved);
+    }
+
+}
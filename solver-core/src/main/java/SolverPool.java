@@ -0,0 +1,66 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A fixed number of solver instances, which threads take turns to use.
+ *
+ * A solver is only ever used by the thread that took it, until it's given back. The board is cleared
+ * when it's given back, so every thread gets an empty board, and nothing of one solve is left for the next.
+ * All methods are thread-safe.
+ */
+public final class SolverPool<S extends SudokuSolver> {
+
+    private final BlockingQueue<S> idle;
+    private final int size;
+
+    /**
+     * @param engine creates the solver instances, which are all created at once.
+     * @param size the number of solver instances.
+     */
+    public SolverPool(Supplier<? extends S> engine, int size) {
+        if (size < 1)
+            throw new IllegalArgumentException("Need at least one solver: " + size);
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++)
+            idle.add(engine.get());
+    }
+
+    /** Takes a solver with an empty board, and waits for one to be given back if they're all taken. */
+    public S take() throws InterruptedException {
+        return idle.take();
+    }
+
+    /**
+     * Gives back a solver that was taken from this pool. It must not be used after this.
+     * @throws IllegalStateException if more solvers are given back than were taken.
+     */
+    public void release(S solver) {
+        solver.clear();
+        if (!idle.offer(solver))
+            throw new IllegalStateException("More solvers given back than taken");
+    }
+
+    /** Takes a solver, applies task to it and gives it back. */
+    public <T> T apply(Function<? super S, T> task) throws InterruptedException {
+        S solver = take();
+        try {
+            return task.apply(solver);
+        } finally {
+            release(solver);
+        }
+    }
+
+    /** Returns the number of solver instances. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of solvers that aren't taken. */
+    public int available() {
+        return idle.size();
+    }
+
+}
@@ -0,0 +1,259 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Solves puzzles asynchronously, with a {@link SolverPool} of solver instances shared by all requests.
+ *
+ * The cache is looked up on a thread of its own for every request, a virtual thread on JDK 21 and later,
+ * since the store on disk may have to be read. Older JDKs look it up on a pool of one thread per solver
+ * instance, with room for maxPending lookups in its queue. Puzzles that aren't in the cache are then solved by a
+ * fixed pool of worker threads, one for every solver instance. Engines that wait for other processes,
+ * such as {@link ExternalSudoku}, are instead run on the lookup thread, and wait there for a free solver.
+ *
+ * At most maxPending requests are taken at a time, after that submit fails fast with a
+ * RejectedExecutionException until some of them are done. Cancelling a future stops its solve
+ * with stopSolve(), and a deadline is counted from the call to submit, so requests that wait too
+ * long in the queue time out without being solved.
+ *
+ * All methods are thread-safe.
+ */
+public final class SolverService implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_PENDING = 10_000;
+
+    /** A request, from the call to submit until its future is completed. */
+    private final class Request {
+        final String puzzle;
+        final long deadline;
+        final boolean timed;
+        final CompletableFuture<SolveResult> future = new CompletableFuture<>();
+        /** Guarded by this: if the request was stopped, and the solver that is solving it. */
+        private boolean stopped;
+        private SudokuSolver solver;
+
+        Request(String puzzle, Duration deadline) {
+            // The cache only takes 0 for empty cells
+            this.puzzle = puzzle == null ? null : puzzle.replace('.', '0');
+            this.timed = deadline != null;
+            this.deadline = timed ? System.nanoTime() + deadline.toNanos() : 0;
+        }
+
+        /** Answers from the cache, or passes the request on to be solved. */
+        void lookup() {
+            if (future.isDone())
+                return;
+            try {
+                String cached = cache == null ? null : cache.get(puzzle);
+                if (cached != null) {
+                    boolean solved = !cached.equals(SolutionCache.NO_SOLUTION);
+                    future.complete(new SolveResult(solved ? SolveResult.Outcome.SOLVED : SolveResult.Outcome.UNSOLVABLE,
+                            solved ? cached : null, 0, 0));
+                } else if (blocking) {
+                    solve();
+                } else {
+                    workers.execute(this::solve);
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        void solve() {
+            if (future.isDone())
+                return;
+            SudokuSolver solver;
+            try {
+                solver = solvers.take();
+            } catch (InterruptedException e) {
+                future.completeExceptionally(e);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                solver.load(puzzle);
+                if (!start(solver))
+                    return;
+                SolveResult result = solve(solver);
+                future.complete(result);
+                if (cache != null && result.outcome() != SolveResult.Outcome.TIMED_OUT)
+                    store(result);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    this.solver = null;
+                }
+                solvers.release(solver);
+            }
+        }
+
+        /** Makes the loaded solver the one that stop() stops. The solver keeps a stop that comes
+         *  before its search starts, so no stop is lost.
+         *  @return false if the request is done already. */
+        private synchronized boolean start(SudokuSolver solver) {
+            if (stopped || future.isDone())
+                return false;
+            this.solver = solver;
+            return true;
+        }
+
+        private SolveResult solve(SudokuSolver solver) {
+            try {
+                if (!timed)
+                    return solver.solve(Long.MAX_VALUE);
+                long left = deadline - System.nanoTime();
+                if (left <= 0)
+                    return new SolveResult(SolveResult.Outcome.TIMED_OUT, null, 0, 0);
+                return solver.solve(Duration.ofNanos(left));
+            } catch (UnsupportedOperationException e) {
+                // Not a bounded engine, so the deadline is left to the caller, who can cancel
+                long t0 = System.nanoTime();
+                boolean solved = solver.solve();
+                return new SolveResult(solved ? SolveResult.Outcome.SOLVED : SolveResult.Outcome.UNSOLVABLE,
+                        solved ? solver.stringify() : null, 0, System.nanoTime() - t0);
+            }
+        }
+
+        /** Stores the result in the cache without holding up the worker. */
+        private void store(SolveResult result) {
+            try {
+                io.execute(() -> put(result));
+            } catch (RejectedExecutionException e) {
+                put(result);      // Closed already, or the queue is full
+            }
+        }
+
+        /** The request is answered already, so a cache that fails is only reported. */
+        private void put(SolveResult result) {
+            try {
+                cache.put(puzzle, result.solution());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        /** Stops the solve. This holds the lock, so the solver can't be stopped once it's back in the pool. */
+        synchronized void stop() {
+            stopped = true;
+            if (solver != null) {
+                try {
+                    solver.stopSolve();
+                } catch (UnsupportedOperationException e) {}
+            }
+        }
+    }
+
+    private final SolverPool<SudokuSolver> solvers;
+    private final SolutionCache cache;
+    private final boolean blocking;
+    private final ExecutorService workers, io;
+    private final int maxPending;
+    private final Semaphore pending;
+    private volatile boolean closed;
+
+    /** Solves with one {@link BitmaskSudoku} per processor, and looks up puzzles in the shared cache. */
+    public SolverService() {
+        this(BitmaskSudoku::new, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_PENDING,
+                SolutionCache.shared(), false);
+    }
+
+    /**
+     * @param engine creates the solver instances.
+     * @param instances the number of solver instances, which is also the number of worker threads.
+     * @param maxPending the maximum number of requests that aren't done yet.
+     * @param cache where puzzles are looked up and solutions are stored, or null for no cache.
+     * @param blocking true if the engine mostly waits for something else, such as another process.
+     *        Such engines are run on the lookup threads, and no worker threads are started.
+     */
+    public SolverService(Supplier<? extends SudokuSolver> engine, int instances, int maxPending,
+                         SolutionCache cache, boolean blocking) {
+        if (instances < 1 || maxPending < 1)
+            throw new IllegalArgumentException(String.format("Need at least one instance and one request: %s, %s\n",
+                    instances, maxPending));
+        this.solvers = new SolverPool<>(engine, instances);
+        this.cache = cache;
+        this.blocking = blocking;
+        this.maxPending = maxPending;
+        this.pending = new Semaphore(maxPending);
+        this.io = lookupExecutor(instances, maxPending);
+        this.workers = blocking ? io : Executors.newFixedThreadPool(instances, daemon("solver-worker"));
+    }
+
+    /** Solves a puzzle without deadline. */
+    public CompletableFuture<SolveResult> submit(String puzzle) {
+        return submit(puzzle, null);
+    }
+
+    /**
+     * Solves a puzzle. The future fails with an IllegalArgumentException if the puzzle isn't valid,
+     * and with a RejectedExecutionException if there are too many requests already.
+     * @param deadline how long from now the request may take, or null for no deadline.
+     * @throws IllegalStateException if the service is closed.
+     */
+    public CompletableFuture<SolveResult> submit(String puzzle, Duration deadline) {
+        if (closed)
+            throw new IllegalStateException("The service is closed");
+        Request request = new Request(puzzle, deadline);
+        CompletableFuture<SolveResult> future = request.future;
+        if (!pending.tryAcquire()) {
+            future.completeExceptionally(new RejectedExecutionException("Too many pending requests"));
+            return future;
+        }
+        future.whenComplete((result, e) -> {
+            pending.release();
+            if (future.isCancelled())
+                request.stop();
+        });
+        try {
+            io.execute(request::lookup);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /** Returns the number of requests that aren't done yet. */
+    public int pending() {
+        return maxPending - pending.availablePermits();
+    }
+
+    /** Stops taking requests, and lets the ones that are taken already finish. */
+    @Override
+    public void close() {
+        closed = true;
+        io.shutdown();
+        workers.shutdown();
+    }
+
+    /**
+     * Returns an executor that starts a virtual thread per task on JDK 21 and later. On older JDKs,
+     * where virtual threads don't exist, it's a fixed pool of daemon threads with a bounded queue,
+     * which rejects tasks when the queue is full.
+     */
+    private static ExecutorService lookupExecutor(int threads, int queued) {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queued), daemon("solver-io"));
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
@@ -0,0 +1,372 @@
+import java.io.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+public class Sudoku implements SudokuSolver {
+
+    /**
+     *  1. Skriva test
+     *  2. Skriva fina kommentarer enligt javadoc-standard
+     *  3. GUI
+     *
+     *
+     */
+
+    /** The cells row by row. A flat array is faster to search than a PackedBoard, which is
+     *  only used to hand the board over to the cache. */
+    private final byte[] board = new byte[81];
+    private final static ThreadLocal<PuzzleGenerator> GENERATOR = ThreadLocal.withInitial(PuzzleGenerator::new);
+
+
+    private final SolutionCache cache;
+
+    private final SearchLimit limits = new SearchLimit("sudoku");
+
+    /** Cleared by stopSolve(), and set again when a search ends or a board is loaded, so that a stop
+     *  that comes just before a search still stops it. */
+    private volatile boolean running = true;
+    /** If the last search was stopped. */
+    private boolean stopped;
+
+    /** Told about every cell the search changes, if not null. */
+    private BoardListener listener;
+
+    /** State of the current call to solveMultiple. */
+    private int limit, found;
+    private Consumer<SudokuSolver> onSolution;
+
+    public Sudoku() {
+        this(SolutionCache.shared());
+    }
+
+    /** Creates a sudoku that looks up and stores its solutions in the given cache,
+     *  or that always searches if it's null. */
+    public Sudoku(SolutionCache cache) {
+        this.cache = cache;
+    }
+
+    /** Checks if the given cell and value is valid. Naively expects that all numbers
+     *  are withing range (0-8 for row, col) and 1-9 for value.
+     *  The reason for this is to save computation. */
+    boolean isOk(int row, int col, int value) {
+        for (int i = 0; i < 9; i++) {
+            if (board[row * 9 + i] == value || board[i * 9 + col] == value)
+                return false;
+        }
+
+        int rStart = (row / 3) * 3;
+        int cStart = (col / 3) * 3;
+
+        for (int r = rStart; r < rStart+3; r++) {
+            for (int c = cStart; c < cStart+3; c++) {
+                if (board[r * 9 + c] == value)
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** Recursive method that tries to solve the sudoku.
+     *  To be able to stop this solve-method from a different thread,
+     *  we've added a flag that must be true before proceeding the method.
+     *  Every call is a node of the search, and counts against its budget. */
+    private boolean solve(int row, int col) {
+        if (!running || !limits.node(row * 9 + col))
+            return false;
+
+        if (col == 9) {
+            if (row == 8)
+                return true;
+            row++;
+            col = 0;
+        }
+
+        if (board[row * 9 + col] == 0) {
+            for (int value = 1; value <= 9; value++) {
+                if (isOk(row, col, value)) {
+                    board[row * 9 + col] = (byte) value;        // Sets cell
+                    if (listener != null)
+                        listener.cellChanged(row * 9 + col, value);
+                    if (solve(row, col+1))
+                        return true;
+                    board[row * 9 + col] = 0;
+                    if (listener != null)
+                        listener.cellChanged(row * 9 + col, 0);
+                    limits.backtrack();
+                }
+            }
+        } else {
+            return solve(row, col+1);
+        }
+        return false;
+    }
+
+    /** Recursive method that passes every solution it finds on to onSolution.
+     *  Unlike solve(row, col), it always backtracks, so the board is left untouched.
+     *  @return true if the search should stop, either because enough solutions were found
+     *  or because the solver was stopped. */
+    private boolean solveMultiple(int row, int col) {
+        if (!running)
+            return true;
+
+        if (col == 9) {
+            if (row == 8) {
+                found++;
+                if (onSolution != null)
+                    onSolution.accept(this);
+                return found >= limit;
+            }
+            row++;
+            col = 0;
+        }
+
+        if (board[row * 9 + col] == 0) {
+            for (int value = 1; value <= 9; value++) {
+                if (isOk(row, col, value)) {
+                    board[row * 9 + col] = (byte) value;        // Sets cell
+                    boolean stop = solveMultiple(row, col+1);
+                    // Backtrack no matter what
+                    board[row * 9 + col] = 0;
+                    if (stop)
+                        return true;
+                }
+            }
+            return false;
+        }
+        return solveMultiple(row, col+1);
+    }
+
+    @Override
+    public int solveMultiple(int limit, Consumer<SudokuSolver> onSolution) {
+        this.limit = limit;
+        this.onSolution = onSolution;
+        found = 0;
+        if (limit > 0)
+            solveMultiple(0, 0);
+        endSearch();
+        this.onSolution = null;
+        return found;
+    }
+
+    public static void main(String[] args) {
+        Sudoku sudoku = new Sudoku();
+        sudoku.randomize();
+        System.out.println(sudoku);
+        sudoku.solve();
+        System.out.println(sudoku);
+    }
+
+    /** Returns a visual representation of the board */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < 9; r++) {
+            sb.append("\n");
+            for (int c = 0; c < 9; c++) {
+                sb.append(String.format(" %s ", board[r * 9 + c]));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean solve() {
+        limits.start();
+        boolean solved = solveCached();
+        limits.finish();
+        return solved;
+    }
+
+    @Override
+    public SolveResult solve(long nodeBudget) {
+        limits.start(nodeBudget, null);
+        return limits.result(solveCached() ? stringify() : null, stopped);
+    }
+
+    @Override
+    public SolveResult solve(Duration deadline) {
+        limits.start(Long.MAX_VALUE, deadline);
+        return limits.result(solveCached() ? stringify() : null, stopped);
+    }
+
+    /** Looks up the board in the cache, and searches for a solution if it's not there. */
+    private boolean solveCached() {
+        stopped = false;
+        PackedBoard input = toPacked();
+        String solution = findSavedSolution(input);
+
+        boolean result = false;
+
+        if (solution == null) {
+            // No old solution found, try to solve the sudoku.
+            result = solve(0, 0);
+            endSearch();
+            // A stopped search says nothing about the board, so it's not saved
+            if (!stopped && !limits.exceeded())
+                saveResult(input, result);
+        } else if (hasSolution(solution)) {
+            decode(solution.getBytes());
+            result = true;
+        }
+
+        return result;
+    }
+
+    @Override
+    public void setBoardListener(BoardListener listener) {
+        this.listener = listener;
+    }
+
+    /** Remembers if the search that just ended was stopped, and lets the next one run. */
+    private void endSearch() {
+        stopped = !running;
+        running = true;
+    }
+
+    /** Stops the current attempt to solve the board, or the next one if it hasn't started yet.
+     *  This should be called from a different thread. */
+    @Override
+    public void stopSolve() {
+        running = false;
+    }
+
+    /** Puts a new puzzle with exactly one solution on the board. */
+    @Override
+    public void randomize() {
+        load(GENERATOR.get().generate());
+    }
+
+    /** Ensures that the given row, col are within 0-8. */
+    private boolean outOfBounds(int row, int col) {
+        return row < 0 || row > 8 || col < 0 || col > 8;
+    }
+
+    /** Clears the entire sudoku board using indices 0-8 instead of 1-9 */
+    @Override
+    public void clear() {
+        Arrays.fill(board, (byte) 0);
+        running = true;
+    }
+
+    @Override
+    public void setCell(int row, int col, int val) throws IllegalArgumentException {
+        if (outOfBounds(row, col) || !isOk(row, col, val) || val < 1 || val > 9)
+            throw new IllegalArgumentException(String.format("Failed to put %s at (%s, %s)!\n", val, row, col));
+        board[row * 9 + col] = (byte) val;
+    }
+
+    @Override
+    public int getCell(int row, int col) throws IllegalArgumentException {
+        if (outOfBounds(row, col))
+            throw new IllegalArgumentException(String.format("Failed to read at (%s, %s)\n", row, col));
+        return board[row * 9 + col];
+    }
+
+
+    /**
+     *  ---- COMPLETELY OPTIONAL -----
+     *
+     *  Methods that allow us to use a different backend engine, which takes
+     *  the sudoku-board as a input string, solves the sudoku, and then outputs
+     *  the sudoku-board as a sting again.
+     *  External engines can be found in /engines
+     */
+
+    private void saveResult(PackedBoard input, boolean boardHasSolution) {
+        if (cache != null)
+            cache.put(input, boardHasSolution ? stringify() : null);
+    }
+
+    private String findSavedSolution(PackedBoard input) {
+        return cache == null ? null : cache.get(input);
+    }
+
+    private boolean hasSolution(String solution) {
+        return !solution.equals(SolutionCache.NO_SOLUTION);
+    }
+
+
+
+
+    /** Compares the two different backend-engines in solving-speed, on the same board.
+     *  This only times a single run, see the benchmarks in /bench for proper numbers. */
+    private void engineTest() {
+        clear();
+        randomize();
+        String input = stringify();
+        System.out.println("Solving following sudoku:");
+        System.out.println(this);
+
+        long t0, t1, t2;
+
+        t0 = System.nanoTime();
+        solveWithCEngine();
+        t1 = System.nanoTime() - t0;
+
+        load(input);
+
+        t0 = System.nanoTime();
+        solve();
+        t2 = System.nanoTime() - t0;
+
+        System.out.println(this);
+        System.out.printf("C backend: %.3f ms\n", t1 / 1e6);
+        System.out.printf("Java backend: %.3f ms\n", t2 / 1e6);
+    }
+
+    /** Tries to solve the sudoku with a different (pre-compiled) backend engine.
+     *  The engine keeps running between calls, see {@link ExternalEngine}. */
+    private boolean solveWithCEngine() {
+        try {
+            String solution = ExternalEngine.shared().solve(stringify());
+            if (!solution.equals(ExternalEngine.NO_SOLUTION)) {
+                // Found solution
+                decode(solution.getBytes());
+                return true;
+            }
+        } catch (IOException | TimeoutException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    /** Fills the sudoku board with the given board as an array of bytes.
+     *  This is useful if we're reading board input from another solver-engine. */
+    void decode(byte[] input) {
+        int r = 0, c = 0;
+        for (int i = 0; i < input.length; i++) {
+            board[r * 9 + c] = (byte) (input[i] - '0');
+            if (c == 8) {
+                r++;
+                c = 0;
+            } else {
+                c++;
+            }
+        }
+    }
+
+    /** Turns the sudoku-board to a string.
+     * This is useful to pass the board as argument to another solver-engine. */
+    @Override
+    public String stringify() {
+        char[] text = new char[81];
+        for (int i = 0; i < 81; i++)
+            text[i] = (char) ('0' + board[i]);
+        return new String(text);
+    }
+
+    /** Copies the board into a packed board, which is what the cache is given. */
+    PackedBoard toPacked() {
+        PackedBoard packed = new PackedBoard();
+        for (int i = 0; i < 81; i++)
+            packed.set(i, board[i]);
+        return packed;
+    }
+
+
+}
@@ -0,0 +1,167 @@
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * A sudoku board together with an engine that solves it.
+ *
+ * Solvers are not thread-safe: a solver is used by one thread at a time, except for stopSolve(),
+ * which is meant to be called from another thread while a solve is running. Solvers share nothing
+ * but the {@link SolutionCache} and {@link ExternalEngine}, which are thread-safe, so different
+ * solvers can solve on different threads at the same time. A {@link SolverPool} hands out solvers
+ * to threads, and a {@link SolverService} solves on a pool of threads.
+ */
+public interface SudokuSolver {
+
+    /**
+     * Tries to solve the current sudoku.
+     * @return true if there is one or more solutions, false if no solution could be found.
+     */
+    boolean solve();
+
+    /**
+     * (Optional) Tries to solve the current sudoku, but gives up after exploring nodeBudget nodes
+     * of the search. Unlike solve(), the result tells a puzzle without solution apart from one the
+     * search didn't finish, and a solve that gives up leaves the board as it was.
+     *
+     * @throws IllegalArgumentException if nodeBudget is negative.
+     * @throws UnsupportedOperationException if not implemented.
+     */
+    default SolveResult solve(long nodeBudget) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * (Optional) Tries to solve the current sudoku, but gives up when deadline has passed since the call.
+     * The search checks the clock as it goes, so no other thread is involved, but it can run somewhat
+     * over the deadline.
+     *
+     * @throws IllegalArgumentException if deadline is negative.
+     * @throws UnsupportedOperationException if not implemented.
+     */
+    default SolveResult solve(Duration deadline) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * (Optional) Tells the listener about every cell the search fills in or clears, so that the search can
+     * be watched while it runs. This makes the search slower, so it should only be done for a reason.
+     * @param listener the listener, or null to stop telling anyone.
+     * @throws UnsupportedOperationException if not implemented.
+     */
+    default void setBoardListener(BoardListener listener) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * (Optional) Stops the current attempt to solve the board, which then returns as if nothing was found,
+     * or with {@link SolveResult.Outcome#TIMED_OUT}. This should be called from a different thread.
+     * A stop that comes before the solve has started stops it as soon as it starts, unless a new board
+     * is loaded or the board is cleared first.
+     *
+     * @throws UnsupportedOperationException if not implemented.
+     */
+    default void stopSolve() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * (Optional) Searches for solutions of the current sudoku, and passes each of them on to onSolution
+     * as soon as it's found. The consumer gets the solver itself with the solution on the board,
+     * which is only valid until the consumer returns, so the board must be copied if it's kept.
+     * Afterwards the board is left as it was before the call.
+     *
+     * @param limit the maximum number of solutions to look for.
+     * @param onSolution called for every solution, may be null if the solutions are only counted.
+     * @return the number of solutions found, at most limit.
+     * @throws UnsupportedOperationException if not implemented.
+     */
+    default int solveMultiple(int limit, Consumer<SudokuSolver> onSolution) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Counts the solutions of the current sudoku, but stops as soon as limit solutions are found.
+     * @throws UnsupportedOperationException if solveMultiple is not implemented.
+     */
+    default int countSolutions(int limit) {
+        return solveMultiple(limit, null);
+    }
+
+    /**
+     * Checks if the current sudoku has exactly one solution. The search stops at the second solution,
+     * so this is much cheaper than counting all the solutions.
+     * @throws UnsupportedOperationException if solveMultiple is not implemented.
+     */
+    default boolean hasUniqueSolution() {
+        return countSolutions(2) == 1;
+    }
+
+    /** Clears the entire sudoku board. */
+    default void clear() {
+        for(int i = 1; i <= 9; i++) {
+            for(int k = 1; k <= 9; k++) {
+                setCell(i, k, 0);
+            }
+        }
+    }
+
+    /**
+     * (Optional) Fills the board with random (valid) numbers.
+     *
+     * @throws UnsupportedOperationException if not implemented.
+     */
+    default void randomize() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @param row must be between 1-9 since the sudokuboard is 9x9
+     * @param col must be between 1-9 since the sudokuboard is 9x9
+     * @param val must be between 1-9 (following the rules of sudoku) or 0 if cell should be marked as unsolved.
+     * @throws IllegalArgumentException if any of the parameters are out of range
+     *         or the if val can't be placed at the current cell.
+     */
+    void setCell(int row, int col, int val) throws IllegalArgumentException;
+
+    /**
+     * @param row must be between 1-9 since the sudokuboard is 9x9
+     * @param col must be between 1-9 since the sudokuboard is 9x9
+     * @throws IllegalArgumentException if any of the parameters are out of range
+     */
+    int getCell(int row, int col) throws IllegalArgumentException;
+
+    /**
+     * Puts a board on the sudoku, replacing what was there before.
+     * @param puzzle 81 characters, row by row, with the digits 1-9 or 0 (or '.') for empty cells.
+     * @throws IllegalArgumentException if the board has the wrong length or characters,
+     *         or if it breaks the rules of sudoku.
+     */
+    default void load(CharSequence puzzle) throws IllegalArgumentException {
+        if (puzzle.length() != 81)
+            throw new IllegalArgumentException(String.format("Board must be 81 characters, was %s\n", puzzle.length()));
+        clear();
+        for (int i = 0; i < 81; i++) {
+            char ch = puzzle.charAt(i);
+            if (ch == '0' || ch == '.')
+                continue;
+            if (ch < '1' || ch > '9')
+                throw new IllegalArgumentException(String.format("Invalid character '%s' at %s\n", ch, i));
+            setCell(i / 9, i % 9, ch - '0');
+        }
+    }
+
+    /**
+     * Turns the sudoku-board to a string of 81 characters, row by row, with 0 for empty cells.
+     * This is the same format as {@link #load(CharSequence)} reads.
+     */
+    default String stringify() {
+        StringBuilder sb = new StringBuilder(81);
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                sb.append(getCell(r, c));
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,145 @@
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveSudokuTest {
+
+    /** An engine that is as good as BitmaskSudoku, just slower. */
+    private static class SlowSudoku extends BitmaskSudoku {
+        @Override
+        public boolean solve() {
+            pause();
+            return super.solve();
+        }
+
+        @Override
+        public SolveResult solve(Duration deadline) {
+            pause();
+            return super.solve(deadline);
+        }
+
+        private static void pause() {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private EngineRegistry registry;
+    private EngineSelector selector;
+    private AdaptiveSudoku sudoku;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        registry = new EngineRegistry();
+        registry.register("slow", SlowSudoku::new);
+        registry.register("fast", BitmaskSudoku::new);
+        selector = new EngineSelector();
+        sudoku = new AdaptiveSudoku(registry, selector);
+    }
+
+    @org.junit.jupiter.api.Test
+    void solve() {
+        BitmaskSudoku reference = new BitmaskSudoku();
+        for (String puzzle : Puzzles.HARD) {
+            reference.load(puzzle);
+            assertTrue(reference.solve());
+            sudoku.load(puzzle);
+            assertTrue(sudoku.solve());
+            assertEquals(reference.stringify(), sudoku.stringify());
+        }
+
+        sudoku.load(PuzzleFixtures.UNSOLVABLE);
+        assertFalse(sudoku.solve());
+        assertEquals(PuzzleFixtures.UNSOLVABLE, sudoku.stringify());
+    }
+
+    /**
+     * Both engines are tried on the first puzzles, after that the fast one is picked almost every time.
+     */
+    @org.junit.jupiter.api.Test
+    void learnsFastest() {
+        Set<String> tried = new HashSet<>();
+        int fast = 0;
+        for (int i = 0; i < 100; i++) {
+            sudoku.load(Puzzles.EASY[0]);
+            assertTrue(sudoku.solve());
+            tried.add(sudoku.lastEngine());
+            if (i >= 2 && sudoku.lastEngine().equals("fast"))
+                fast++;
+        }
+        assertEquals(Set.of("slow", "fast"), tried);
+        assertTrue(fast >= 90, "The fast engine was only picked " + fast + " times");
+
+        int bucket = EngineSelector.bucket(boardOf(Puzzles.EASY[0]));
+        assertTrue(selector.averageNanos(bucket, "fast") < selector.averageNanos(bucket, "slow"));
+    }
+
+    /**
+     * An engine that is far behind on other puzzles isn't tried on new kinds of puzzles.
+     */
+    @org.junit.jupiter.api.Test
+    void skipsSlowOnNewBucket() {
+        int easy = EngineSelector.bucket(boardOf(Puzzles.EASY[0]));
+        int hard = EngineSelector.bucket(boardOf(Puzzles.HARD[0]));
+        assertNotEquals(easy, hard);
+
+        selector.record(easy, "slow", 1_000_000);
+        selector.record(easy, "fast", 1_000);
+        assertEquals("fast", selector.choose(hard, List.of("slow", "fast")));
+        assertTrue(Double.isNaN(selector.averageNanos(hard, "slow")));
+    }
+
+    /**
+     * The naive search takes about ten seconds on this puzzle, but it only gets a short deadline the first time
+     * it's tried, and then the puzzle is solved by BitmaskSudoku.
+     */
+    @org.junit.jupiter.api.Test
+    void exploreWithDeadline() {
+        registry = new EngineRegistry();
+        registry.register("naive", () -> new Sudoku(null));
+        registry.register("fast", BitmaskSudoku::new);
+        sudoku = new AdaptiveSudoku(registry, selector);
+
+        sudoku.load(Puzzles.PATHOLOGICAL[0]);
+        long t0 = System.nanoTime();
+        assertTrue(sudoku.solve());
+        assertTrue(System.nanoTime() - t0 < 5_000_000_000L, "Took " + (System.nanoTime() - t0) + " ns");
+        assertEquals("naive", sudoku.lastEngine());
+        assertEquals(PuzzleFixtures.solutionOf(Puzzles.PATHOLOGICAL[0]), sudoku.stringify());
+
+        int bucket = EngineSelector.bucket(boardOf(Puzzles.PATHOLOGICAL[0]));
+        assertTrue(selector.averageNanos(bucket, "naive") >= AdaptiveSudoku.EXPLORE_MILLIS * 1_000_000);
+        sudoku.load(Puzzles.PATHOLOGICAL[0]);
+        assertTrue(sudoku.solve());
+        assertEquals("fast", sudoku.lastEngine());
+    }
+
+    /** A solve that runs out of budget isn't recorded, and an engine without bounded solves leaves them to BitmaskSudoku. */
+    @org.junit.jupiter.api.Test
+    void boundedSolve() {
+        sudoku.load(Puzzles.HARD[0]);
+        assertEquals(SolveResult.Outcome.TIMED_OUT, sudoku.solve(0).outcome());
+        assertEquals(Puzzles.HARD[0], sudoku.stringify());
+        int bucket = EngineSelector.bucket(boardOf(Puzzles.HARD[0]));
+        assertTrue(Double.isNaN(selector.averageNanos(bucket, sudoku.lastEngine())));
+
+        EngineRegistry parallel = new EngineRegistry();
+        parallel.register("parallel", ParallelSudoku::new);
+        sudoku = new AdaptiveSudoku(parallel, selector);
+        sudoku.load(Puzzles.HARD[0]);
+        assertTrue(sudoku.solve(Duration.ofSeconds(10)).isSolved());
+        assertEquals(PuzzleFixtures.solutionOf(Puzzles.HARD[0]), sudoku.stringify());
+    }
+
+    private static BitmaskSudoku boardOf(String puzzle) {
+        BitmaskSudoku board = new BitmaskSudoku();
+        board.load(puzzle);
+        return board;
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSolverTest {
+    private BatchSolver batch;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        batch = new BatchSolver(3);
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        batch.close();
+    }
+
+    /**
+     * Solves more puzzles than fit in one chunk, and asserts that the solutions come back in input order.
+     */
+    @org.junit.jupiter.api.Test
+    void solveInOrder() throws InterruptedException {
+        List<String> puzzles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            puzzles.add(Puzzles.HARD[i % Puzzles.HARD.length]);
+
+        String[] solutions = batch.solve(puzzles);
+
+        BitmaskSudoku sudoku = new BitmaskSudoku();
+        for (int i = 0; i < Puzzles.HARD.length; i++) {
+            sudoku.load(Puzzles.HARD[i]);
+            assertTrue(sudoku.solve());
+            for (int k = i; k < solutions.length; k += Puzzles.HARD.length)
+                assertEquals(sudoku.stringify(), solutions[k], "Wrong solution at index " + k);
+        }
+    }
+
+    /**
+     * Puzzles that can't be solved, or can't even be read, give NO_SOLUTION.
+     */
+    @org.junit.jupiter.api.Test
+    void noSolution() throws InterruptedException {
+        String broken = "11" + "0".repeat(79);
+        String[] solutions = batch.solve(Arrays.asList(PuzzleFixtures.UNSOLVABLE, "too short", broken, Puzzles.HARD[0]));
+
+        assertEquals(BatchSolver.NO_SOLUTION, solutions[0]);
+        assertEquals(BatchSolver.NO_SOLUTION, solutions[1]);
+        assertEquals(BatchSolver.NO_SOLUTION, solutions[2]);
+        assertNotEquals(BatchSolver.NO_SOLUTION, solutions[3]);
+    }
+
+    /**
+     * Every index of the stream is reported exactly once, and the stats count every puzzle.
+     */
+    @org.junit.jupiter.api.Test
+    void solveStream() throws InterruptedException {
+        final int COUNT = 5000;
+        AtomicLongArray seen = new AtomicLongArray(COUNT);
+        BatchSolver.Stats stats = batch.solve(
+                IntStream.range(0, COUNT).mapToObj(i -> "0".repeat(81)),
+                (index, puzzle, solution) -> seen.incrementAndGet((int) index));
+
+        for (int i = 0; i < COUNT; i++)
+            assertEquals(1, seen.get(i), "Index " + i + " was not reported once.");
+        assertEquals(COUNT, stats.puzzles);
+        assertEquals(COUNT, stats.solved);
+        assertTrue(stats.puzzlesPerSecond() > 0);
+    }
+
+    @org.junit.jupiter.api.Test
+    void solvePacked() throws InterruptedException {
+        PackedBoard[] puzzles = new PackedBoard[Puzzles.HARD.length + 1];
+        for (int i = 0; i < Puzzles.HARD.length; i++)
+            puzzles[i] = PackedBoard.parse(Puzzles.HARD[i]);
+        puzzles[Puzzles.HARD.length] = PackedBoard.parse(PuzzleFixtures.UNSOLVABLE);
+
+        PackedBoard[] solutions = batch.solve(puzzles);
+        String[] expected = batch.solve(Arrays.asList(Puzzles.HARD));
+        for (int i = 0; i < Puzzles.HARD.length; i++)
+            assertEquals(expected[i], solutions[i].toString());
+        assertNull(solutions[Puzzles.HARD.length]);
+    }
+}
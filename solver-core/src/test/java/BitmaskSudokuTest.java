@@ -0,0 +1,185 @@
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmaskSudokuTest {
+    private BitmaskSudoku sudoku;
+
+    private static final String FIG1 =
+            "008009062000000005102500000000210090050000600600000028410608000860030100000000400";
+    private static final String ESCARGOT =
+            "100007090030020008009600500005300900010080002600004000300000010040000007007000300";
+    private static final String INKALA =
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        sudoku = new BitmaskSudoku();
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        sudoku.clear();
+    }
+
+    /** Puts an 81-character board (row by row, 0 for empty cells) on the given solver. */
+    private static void load(SudokuSolver solver, String board) {
+        for (int i = 0; i < 81; i++) {
+            int value = board.charAt(i) - '0';
+            if (value != 0)
+                solver.setCell(i / 9, i % 9, value);
+        }
+    }
+
+    /** Asserts that every row, column and box of the solver contains the digits 1-9. */
+    private static void assertValidSolution(SudokuSolver solver) {
+        for (int i = 0; i < 9; i++) {
+            int row = 0, col = 0, box = 0;
+            for (int k = 0; k < 9; k++) {
+                row |= 1 << solver.getCell(i, k);
+                col |= 1 << solver.getCell(k, i);
+                box |= 1 << solver.getCell((i / 3) * 3 + k / 3, (i % 3) * 3 + k % 3);
+            }
+            assertEquals(0x3FE, row, "Row " + i + " is not solved.");
+            assertEquals(0x3FE, col, "Column " + i + " is not solved.");
+            assertEquals(0x3FE, box, "Box " + i + " is not solved.");
+        }
+    }
+
+    /**
+     * Solves the board with both this engine and the reference engine and asserts that
+     * they found the same solution.
+     */
+    private void assertSameAsReference(String board) {
+        Sudoku reference = new Sudoku();
+        load(reference, board);
+        load(sudoku, board);
+
+        assertTrue(reference.solve(), "Reference engine cannot solve the sudoku.");
+        assertTrue(sudoku.solve(), "Sudoku cannot be solved.");
+        assertValidSolution(sudoku);
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                assertEquals(reference.getCell(r, c), sudoku.getCell(r, c),
+                        String.format("Different solutions at (%s, %s).", r, c));
+            }
+        }
+    }
+
+    /**
+     * Tries to solve an empty soduku.
+     */
+    @org.junit.jupiter.api.Test
+    void solveEmpty() {
+        assertTrue(sudoku.solve(), "Empty sudoku board cannot be solved.");
+        assertValidSolution(sudoku);
+    }
+
+    /**
+     * Tries to set cells that break the rules of Sudoku in the same row, column and region.
+     */
+    @org.junit.jupiter.api.Test
+    void throwableCells() {
+        sudoku.setCell(1, 1, 3);
+        assertThrows(IllegalArgumentException.class, () -> sudoku.setCell(1, 7, 3));
+        assertThrows(IllegalArgumentException.class, () -> sudoku.setCell(8, 1, 3));
+        assertThrows(IllegalArgumentException.class, () -> sudoku.setCell(0, 2, 3));
+        assertEquals(0, sudoku.getCell(0, 2));
+    }
+
+    /**
+     * Asserts that a cell can be emptied with 0 and that its value can then be used again.
+     */
+    @org.junit.jupiter.api.Test
+    void setCellZero() {
+        sudoku.setCell(4, 4, 5);
+        sudoku.setCell(4, 4, 0);
+        assertEquals(0, sudoku.getCell(4, 4));
+        sudoku.setCell(4, 5, 5);
+        assertEquals(5, sudoku.getCell(4, 5));
+    }
+
+    /**
+     * Asserts that an attempt to assign a value to a cell that is out of bounds generates an
+     * IllegalArgumentException.
+     */
+    @org.junit.jupiter.api.Test
+    void setCellOutOfBounds() {
+        assertThrows(IllegalArgumentException.class, () -> sudoku.setCell(10, 3, 7));
+        assertThrows(IllegalArgumentException.class, () -> sudoku.getCell(3, -1));
+    }
+
+    /**
+     * A board where no rule is broken yet, but where the last cell of the first row can't be filled.
+     * The board must be left untouched after the failed attempt.
+     */
+    @org.junit.jupiter.api.Test
+    void unsolvable() {
+        for (int c = 0; c < 8; c++)
+            sudoku.setCell(0, c, c + 1);
+        sudoku.setCell(4, 8, 9);
+
+        assertFalse(sudoku.solve(), "Unsolvable sudoku was solved.");
+        assertEquals(9, sudoku.getCell(4, 8));
+        assertEquals(0, sudoku.getCell(0, 8));
+        assertEquals(0, sudoku.getCell(1, 1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testFig1() {
+        assertSameAsReference(FIG1);
+    }
+
+    @org.junit.jupiter.api.Test
+    void testHard() {
+        assertSameAsReference(ESCARGOT);
+        sudoku.clear();
+        assertSameAsReference(INKALA);
+    }
+
+    /**
+     * Counts the solutions of boards with one, several and no solutions, and compares
+     * with the dancing links engine.
+     */
+    @org.junit.jupiter.api.Test
+    void countSolutions() {
+        DancingLinks reference = new DancingLinks();
+        load(reference, ESCARGOT);
+        load(sudoku, ESCARGOT);
+        assertTrue(sudoku.hasUniqueSolution());
+
+        for (int c = 0; c < 9; c++) {
+            sudoku.setCell(0, c, 0);
+            reference.setCell(0, c, 0);
+        }
+        assertEquals(reference.countSolutions(10000), sudoku.countSolutions(10000));
+        assertEquals(2, sudoku.countSolutions(2));
+        assertEquals(0, sudoku.getCell(0, 0), "Counting solutions changed the board.");
+
+        sudoku.clear();
+        for (int c = 0; c < 8; c++)
+            sudoku.setCell(0, c, c + 1);
+        sudoku.setCell(4, 8, 9);
+        assertEquals(0, sudoku.countSolutions(2));
+    }
+
+    @org.junit.jupiter.api.Test
+    void nodeBudget() {
+        load(sudoku, INKALA);
+        String puzzle = sudoku.stringify();
+        SolveResult result = sudoku.solve(3);
+        assertEquals(SolveResult.Outcome.TIMED_OUT, result.outcome());
+        assertEquals(3, result.nodes());
+        assertEquals(puzzle, sudoku.stringify());
+
+        result = sudoku.solve(Duration.ofSeconds(10));
+        assertEquals(SolveResult.Outcome.SOLVED, result.outcome());
+        assertValidSolution(sudoku);
+
+        sudoku.clear();
+        for (int c = 0; c < 8; c++)
+            sudoku.setCell(0, c, c + 1);
+        sudoku.setCell(4, 8, 9);
+        assertEquals(SolveResult.Outcome.UNSOLVABLE, sudoku.solve(1_000_000).outcome());
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardDeltasTest {
+
+    /** Tasks wait here until the test runs them, like on a busy FX thread. */
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final int[] shown = new int[81];
+    private final List<Integer> changes = new ArrayList<>();
+
+    private BoardDeltas deltas(long frameNanos) {
+        return new BoardDeltas((cell, value) -> {
+            shown[cell] = value;
+            changes.add(cell);
+        }, tasks::add, frameNanos);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty())
+            tasks.poll().run();
+    }
+
+    @org.junit.jupiter.api.Test
+    void coalesce() {
+        BoardDeltas deltas = deltas(0);
+        for (int i = 0; i < 1000; i++) {
+            deltas.cellChanged(80, i % 9 + 1);
+            deltas.cellChanged(3, i % 2);
+        }
+        assertEquals(1, tasks.size(), "Only one task is waiting at a time");
+
+        runTasks();
+        assertEquals(List.of(3, 80), changes, "Every changed cell is passed on once");
+        assertEquals(999 % 9 + 1, shown[80]);
+        assertEquals(1, shown[3]);
+    }
+
+    @org.junit.jupiter.api.Test
+    void oncePerFrame() {
+        BoardDeltas deltas = deltas(Long.MAX_VALUE / 4);
+        deltas.cellChanged(0, 1);
+        runTasks();
+        assertEquals(1, shown[0]);
+
+        // The next frame is far away, so nothing is passed on until flush
+        deltas.cellChanged(0, 2);
+        deltas.cellChanged(1, 3);
+        assertTrue(tasks.isEmpty());
+        deltas.flush();
+        runTasks();
+        assertEquals(2, shown[0]);
+        assertEquals(3, shown[1]);
+    }
+
+    @org.junit.jupiter.api.Test
+    void close() {
+        BoardDeltas deltas = deltas(0);
+        deltas.cellChanged(40, 5);
+        deltas.close();
+        runTasks();
+        assertTrue(changes.isEmpty());
+    }
+
+    /** Watching a search doesn't change what it finds. */
+    @org.junit.jupiter.api.Test
+    void watchSearch() {
+        Sudoku sudoku = new Sudoku(SolutionCache.inMemory(0));
+        BoardDeltas deltas = deltas(0);
+        sudoku.setBoardListener(deltas);
+        sudoku.load(Puzzles.HARD[0]);
+        assertTrue(sudoku.solve());
+        deltas.flush();
+        runTasks();
+
+        String solution = sudoku.stringify();
+        for (int cell = 0; cell < 81; cell++) {
+            if (Puzzles.HARD[0].charAt(cell) == '0')
+                assertEquals(solution.charAt(cell) - '0', shown[cell]);
+        }
+    }
+
+}
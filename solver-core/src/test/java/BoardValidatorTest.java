@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardValidatorTest {
+    private BoardValidator validator;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        validator = new BoardValidator();
+    }
+
+    private void load(String puzzle) {
+        for (int cell = 0; cell < 81; cell++)
+            validator.set(cell, puzzle.charAt(cell) - '0');
+    }
+
+    @org.junit.jupiter.api.Test
+    void conflicts() {
+        validator.set(0, 5);
+        validator.set(8, 5);        // Same row
+        assertTrue(validator.isConflict(0));
+        assertTrue(validator.isConflict(8));
+        assertEquals(2, validator.conflicts());
+
+        validator.set(20, 5);       // Same box as 0
+        assertEquals(3, validator.conflicts());
+        assertFalse(validator.isValid());
+
+        validator.set(0, 0);
+        assertFalse(validator.isConflict(0));
+        assertFalse(validator.isConflict(8));
+        assertFalse(validator.isConflict(20));
+        assertTrue(validator.isValid());
+
+        validator.set(8, 0);
+        validator.set(80, 5);
+        assertTrue(validator.isValid());
+        assertThrows(IllegalArgumentException.class, () -> validator.set(81, 1));
+        assertThrows(IllegalArgumentException.class, () -> validator.set(0, 10));
+    }
+
+    @org.junit.jupiter.api.Test
+    void noCandidates() {
+        // 1-8 in the row and 9 in the column of cell 8
+        for (int c = 0; c < 8; c++)
+            validator.set(c, c + 1);
+        assertTrue(validator.isValid());
+        validator.set(80, 9);
+        assertTrue(validator.hasNoCandidates(8));
+        assertEquals(1, validator.deadCells());
+        assertFalse(validator.isValid());
+
+        validator.set(80, 0);
+        assertFalse(validator.hasNoCandidates(8));
+        assertTrue(validator.isValid());
+    }
+
+    @org.junit.jupiter.api.Test
+    void agreesWithSolver() {
+        for (String puzzle : Puzzles.HARD) {
+            validator.clear();
+            load(puzzle);
+            assertTrue(validator.isValid(), puzzle);
+            assertEquals(puzzle, validator.stringify());
+
+            BitmaskSudoku sudoku = new BitmaskSudoku();
+            sudoku.load(puzzle);
+            assertTrue(sudoku.solve());
+            load(sudoku.stringify());
+            assertTrue(validator.isValid());
+        }
+        validator.clear();
+        assertEquals("0".repeat(81), validator.stringify());
+        assertTrue(validator.isValid());
+    }
+
+    @org.junit.jupiter.api.Test
+    void peers() {
+        for (int cell = 0; cell < 81; cell++) {
+            int[] peers = BoardValidator.peers(cell);
+            assertEquals(20, java.util.Arrays.stream(peers).distinct().count());
+            for (int peer : peers)
+                assertNotEquals(cell, peer);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanonicalizerTest {
+    private final Random random = new Random(8);
+
+    /** Relabels the digits, maybe transposes, and shuffles bands, stacks, rows and columns of a board. */
+    private String disguise(String board) {
+        List<Integer> digits = new ArrayList<>(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        Collections.shuffle(digits, random);
+        int[] rows = shuffleLines(), cols = shuffleLines();
+        boolean transpose = random.nextBoolean();
+
+        char[] out = new char[81];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int from = transpose ? cols[c] * 9 + rows[r] : rows[r] * 9 + cols[c];
+                int d = board.charAt(from) - '0';
+                out[r * 9 + c] = (char) ('0' + (d == 0 ? 0 : digits.get(d - 1)));
+            }
+        }
+        return new String(out);
+    }
+
+    private int[] shuffleLines() {
+        List<Integer> bands = new ArrayList<>(List.of(0, 1, 2));
+        Collections.shuffle(bands, random);
+        int[] lines = new int[9];
+        for (int b = 0; b < 3; b++) {
+            List<Integer> inBand = new ArrayList<>(List.of(0, 1, 2));
+            Collections.shuffle(inBand, random);
+            for (int k = 0; k < 3; k++)
+                lines[b * 3 + k] = bands.get(b) * 3 + inBand.get(k);
+        }
+        return lines;
+    }
+
+    @org.junit.jupiter.api.Test
+    void disguisedBoardsHaveSameForm() {
+        for (String puzzle : Puzzles.HARD) {
+            String canonical = Canonicalizer.canonicalize(puzzle).board();
+            for (int i = 0; i < 20; i++)
+                assertEquals(canonical, Canonicalizer.canonicalize(disguise(puzzle)).board());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void differentPuzzlesHaveDifferentForms() {
+        Set<String> forms = new HashSet<>();
+        for (String puzzle : Puzzles.HARD)
+            assertTrue(forms.add(Canonicalizer.canonicalize(puzzle).board()));
+    }
+
+    /**
+     * Solving the canonical board and turning the solution back must give a solution of the original board.
+     */
+    @org.junit.jupiter.api.Test
+    void invertSolution() {
+        BitmaskSudoku sudoku = new BitmaskSudoku();
+        for (String puzzle : Puzzles.HARD) {
+            String board = disguise(puzzle);
+            Canonicalizer.Transform transform = Canonicalizer.canonicalize(board);
+            assertEquals(board, transform.invert(transform.board()));
+
+            sudoku.load(transform.board());
+            assertTrue(sudoku.solve());
+            String solution = transform.invert(sudoku.stringify());
+            assertEquals(sudoku.stringify(), transform.apply(solution));
+
+            sudoku.load(board);
+            assertTrue(sudoku.solve());
+            assertEquals(sudoku.stringify(), solution);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void cacheHitsDisguisedBoard() {
+        SolutionCache cache = SolutionCache.inMemory(16);
+        BitmaskSudoku sudoku = new BitmaskSudoku();
+        sudoku.load(Puzzles.HARD[0]);
+        assertTrue(sudoku.solve());
+        cache.put(Puzzles.HARD[0], sudoku.stringify());
+
+        String board = disguise(Puzzles.HARD[0]);
+        sudoku.load(board);
+        assertTrue(sudoku.solve());
+        assertEquals(sudoku.stringify(), cache.get(board));
+        assertEquals(1, cache.size());
+    }
+
+    /** The empty board is as symmetric as it gets, so it's left as it is. */
+    @org.junit.jupiter.api.Test
+    void symmetricBoardIsKept() {
+        String empty = "0".repeat(81);
+        Canonicalizer.Transform transform = Canonicalizer.canonicalize(empty);
+        assertEquals(empty, transform.board());
+        String solution = "123456789456789123789123456214365897365897214897214365531642978642978531978531642";
+        assertEquals(solution, transform.invert(solution));
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DancingLinksTest {
+    private DancingLinks sudoku;
+
+    private static final String FIG1 =
+            "008009062000000005102500000000210090050000600600000028410608000860030100000000400";
+    private static final String ESCARGOT =
+            "100007090030020008009600500005300900010080002600004000300000010040000007007000300";
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        sudoku = new DancingLinks();
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        sudoku.clear();
+    }
+
+    /** Puts an 81-character board (row by row, 0 for empty cells) on the solver. */
+    private void load(String board) {
+        for (int i = 0; i < 81; i++) {
+            int value = board.charAt(i) - '0';
+            if (value != 0)
+                sudoku.setCell(i / 9, i % 9, value);
+        }
+    }
+
+    /** Asserts that the solver has a solution of the given board on it. */
+    private void assertSolves(String board) {
+        for (int i = 0; i < 9; i++) {
+            int row = 0, col = 0, box = 0;
+            for (int k = 0; k < 9; k++) {
+                row |= 1 << sudoku.getCell(i, k);
+                col |= 1 << sudoku.getCell(k, i);
+                box |= 1 << sudoku.getCell((i / 3) * 3 + k / 3, (i % 3) * 3 + k % 3);
+            }
+            assertEquals(0x3FE, row, "Row " + i + " is not solved.");
+            assertEquals(0x3FE, col, "Column " + i + " is not solved.");
+            assertEquals(0x3FE, box, "Box " + i + " is not solved.");
+        }
+        for (int i = 0; i < 81; i++) {
+            int value = board.charAt(i) - '0';
+            if (value != 0)
+                assertEquals(value, sudoku.getCell(i / 9, i % 9), "Given cell was changed.");
+        }
+    }
+
+    /**
+     * Tries to solve an empty soduku.
+     */
+    @org.junit.jupiter.api.Test
+    void solveEmpty() {
+        assertTrue(sudoku.solve(), "Empty sudoku board cannot be solved.");
+        assertSolves("0".repeat(81));
+    }
+
+    /**
+     * Solves several boards in a row with the same solver, since the link matrix is reused.
+     */
+    @org.junit.jupiter.api.Test
+    void solveReusesMatrix() {
+        for (String board : new String[] {FIG1, ESCARGOT, FIG1}) {
+            sudoku.clear();
+            load(board);
+            assertTrue(sudoku.solve(), "Sudoku cannot be solved.");
+            assertSolves(board);
+        }
+    }
+
+    /**
+     * Tries to set a cell that breaks the rule of Sudoku that states that two identical numbers
+     * cannot be put in the same region.
+     */
+    @org.junit.jupiter.api.Test
+    void throwableCellSameRegion() {
+        sudoku.setCell(1, 1, 6);
+        assertThrows(IllegalArgumentException.class, () -> sudoku.setCell(0, 2, 6));
+        assertThrows(IllegalArgumentException.class, () -> sudoku.setCell(9, 2, 6));
+    }
+
+    /**
+     * A board where the last cell of the first row can't be filled.
+     */
+    @org.junit.jupiter.api.Test
+    void unsolvable() {
+        for (int c = 0; c < 8; c++)
+            sudoku.setCell(0, c, c + 1);
+        sudoku.setCell(4, 8, 9);
+
+        assertFalse(sudoku.solve(), "Unsolvable sudoku was solved.");
+        assertEquals(0, sudoku.countSolutions(10));
+    }
+
+    /**
+     * A proper sudoku has exactly one solution, while removing clues gives more of them.
+     */
+    @org.junit.jupiter.api.Test
+    void countSolutions() {
+        load(ESCARGOT);
+        assertEquals(1, sudoku.countSolutions(2));
+
+        sudoku.setCell(0, 0, 0);
+        sudoku.setCell(0, 5, 0);
+        sudoku.setCell(0, 7, 0);
+        int count = sudoku.countSolutions(1000);
+        assertTrue(count > 1, "Board with removed clues should have several solutions.");
+        assertEquals(2, sudoku.countSolutions(2));
+        assertEquals(0, sudoku.getCell(0, 0), "Counting solutions changed the board.");
+    }
+
+    /**
+     * Every enumerated solution is handed to the consumer while it's on the board.
+     */
+    @org.junit.jupiter.api.Test
+    void solveMultiple() {
+        load(FIG1);
+        sudoku.setCell(0, 2, 0);
+        sudoku.setCell(0, 5, 0);
+
+        Set<String> solutions = new HashSet<>();
+        int count = sudoku.solveMultiple(Integer.MAX_VALUE, solver -> {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 81; i++)
+                sb.append(solver.getCell(i / 9, i % 9));
+            assertFalse(sb.toString().contains("0"), "Solution has empty cells.");
+            solutions.add(sb.toString());
+        });
+        assertEquals(count, solutions.size(), "The same solution was enumerated twice.");
+        assertTrue(count >= 1);
+    }
+
+    /**
+     * Stopping the solver from the consumer stops the enumeration.
+     */
+    @org.junit.jupiter.api.Test
+    void stopSolve() {
+        int count = sudoku.solveMultiple(Integer.MAX_VALUE, solver -> sudoku.stopSolve());
+        assertEquals(1, count);
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineRegistryTest {
+
+    @org.junit.jupiter.api.Test
+    void builtIn() {
+        EngineRegistry registry = EngineRegistry.builtIn();
+        List<String> names = registry.names();
+        assertTrue(names.containsAll(List.of("iterative", "bitmask", "dancing-links", "parallel")));
+        assertFalse(names.contains("sudoku"));
+
+        assertTrue(registry.create("bitmask") instanceof BitmaskSudoku);
+        assertTrue(registry.create("dancing-links") instanceof DancingLinks);
+        assertNotSame(registry.create("bitmask"), registry.create("bitmask"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void unknownEngine() {
+        assertThrows(IllegalArgumentException.class, () -> EngineRegistry.builtIn().create("no such engine"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void register() {
+        EngineRegistry registry = EngineRegistry.builtIn();
+        registry.register("mine", BitmaskSudoku::new);
+        assertEquals("mine", registry.names().get(registry.names().size() - 1));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("mine", BitmaskSudoku::new));
+    }
+
+    /**
+     * Engines that aren't available aren't listed.
+     */
+    @org.junit.jupiter.api.Test
+    void unavailable() {
+        EngineRegistry registry = EngineRegistry.builtIn();
+        registry.register(new EngineRegistry.Provider() {
+            @Override
+            public String name() {
+                return "missing";
+            }
+
+            @Override
+            public SudokuSolver create() {
+                return new BitmaskSudoku();
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return false;
+            }
+        });
+        assertFalse(registry.names().contains("missing"));
+    }
+}
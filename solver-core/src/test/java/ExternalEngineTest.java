@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ExternalEngineTest {
+    private Path executable;
+    private ExternalEngine engine;
+
+    /** Looks for engines/c_solver in the working directory and its parents, the tests are skipped if it isn't built. */
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        for (Path dir = Paths.get("").toAbsolutePath(); dir != null && executable == null; dir = dir.getParent()) {
+            Path candidate = dir.resolve("engines/c_solver");
+            if (Files.isExecutable(candidate))
+                executable = candidate;
+        }
+        assumeTrue(executable != null, "engines/c_solver is not built");
+        engine = new ExternalEngine(executable, 2, Duration.ofSeconds(10));
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        if (engine != null)
+            engine.close();
+    }
+
+    /**
+     * More boards than fit in the window are pipelined through one process, and every answer
+     * must end up at the index of its board.
+     */
+    @org.junit.jupiter.api.Test
+    void solveMany() throws Exception {
+        List<String> boards = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            boards.add(Puzzles.EASY[i % Puzzles.EASY.length]);
+
+        String[] solutions = engine.solve(boards);
+        for (int i = 0; i < boards.size(); i++)
+            assertEquals(PuzzleFixtures.solutionOf(boards.get(i)), solutions[i], "Wrong solution at index " + i);
+    }
+
+    @org.junit.jupiter.api.Test
+    void noSolution() throws Exception {
+        String broken = "11" + "0".repeat(79);
+        String dots = Puzzles.EASY[0].replace('0', '.');
+        String[] solutions = engine.solve(Arrays.asList(PuzzleFixtures.UNSOLVABLE, "too short", broken, dots));
+
+        assertEquals(ExternalEngine.NO_SOLUTION, solutions[0]);
+        assertEquals(ExternalEngine.NO_SOLUTION, solutions[1]);
+        assertEquals(ExternalEngine.NO_SOLUTION, solutions[2]);
+        assertEquals(PuzzleFixtures.solutionOf(Puzzles.EASY[0]), solutions[3]);
+    }
+
+    /**
+     * The puzzle without solution that Puzzles leaves out takes the C engine far too long,
+     * so it's killed, and the next board gets a new process.
+     */
+    @org.junit.jupiter.api.Test
+    void timeout() throws Exception {
+        engine.close();
+        engine = new ExternalEngine(executable, 1, Duration.ofMillis(200));
+        String impossible = "000005080000601043000000000010500000000106000300000005530000061000000004000000000";
+
+        assertThrows(TimeoutException.class, () -> engine.solve(impossible));
+        assertEquals(PuzzleFixtures.solutionOf(Puzzles.EASY[1]), engine.solve(Puzzles.EASY[1]));
+    }
+
+    /**
+     * An engine that exits after every board is restarted for the rest of the boards.
+     */
+    @org.junit.jupiter.api.Test
+    void restartCrashed(@org.junit.jupiter.api.io.TempDir Path dir) throws Exception {
+        Path script = dir.resolve("one_board.sh");
+        Files.writeString(script, "#!/bin/sh\nread board\necho \"$board\" | exec '" + executable + "' -\n");
+        script.toFile().setExecutable(true);
+
+        try (ExternalEngine crashing = new ExternalEngine(script, 1, Duration.ofSeconds(10))) {
+            String[] solutions = crashing.solve(Arrays.asList(Puzzles.EASY));
+            for (int i = 0; i < Puzzles.EASY.length; i++)
+                assertEquals(PuzzleFixtures.solutionOf(Puzzles.EASY[i]), solutions[i]);
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void missingEngine() {
+        try (ExternalEngine missing = new ExternalEngine(Paths.get("no/such/engine"), 1, Duration.ofSeconds(1))) {
+            assertThrows(IOException.class, () -> missing.solve(Puzzles.EASY[0]));
+        }
+    }
+}
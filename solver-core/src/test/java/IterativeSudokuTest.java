@@ -0,0 +1,160 @@
+import java.time.Duration;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IterativeSudokuTest {
+    private IterativeSudoku sudoku;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        sudoku = new IterativeSudoku();
+    }
+
+    @org.junit.jupiter.api.Test
+    void solve() {
+        BitmaskSudoku reference = new BitmaskSudoku();
+        for (String puzzle : Puzzles.HARD) {
+            reference.load(puzzle);
+            assertTrue(reference.solve());
+            sudoku.load(puzzle);
+            assertTrue(sudoku.solve());
+            assertEquals(reference.stringify(), sudoku.stringify());
+        }
+    }
+
+    /**
+     * The search goes through the cells and digits in the same order as Sudoku, so it finds
+     * the same first solution of a board with many solutions.
+     */
+    @org.junit.jupiter.api.Test
+    void sameOrderAsSudoku() {
+        Sudoku reference = new Sudoku(SolutionCache.inMemory(0));
+        for (String puzzle : new String[] {"0".repeat(81), Puzzles.PATHOLOGICAL[1]}) {
+            reference.load(puzzle);
+            assertTrue(reference.solve());
+            sudoku.load(puzzle);
+            assertTrue(sudoku.solve());
+            assertEquals(reference.stringify(), sudoku.stringify());
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void noSolution() {
+        sudoku.load(PuzzleFixtures.UNSOLVABLE);
+        assertFalse(sudoku.solve());
+        assertEquals(PuzzleFixtures.UNSOLVABLE, sudoku.stringify());
+    }
+
+    @org.junit.jupiter.api.Test
+    void solveMultiple() {
+        BitmaskSudoku reference = new BitmaskSudoku();
+        reference.load(Puzzles.PATHOLOGICAL[1]);
+        sudoku.load(Puzzles.PATHOLOGICAL[1]);
+
+        List<String> solutions = new ArrayList<>();
+        assertEquals(reference.countSolutions(50), sudoku.solveMultiple(50, s -> solutions.add(s.stringify())));
+        assertEquals(50, solutions.size());
+        assertEquals(50, solutions.stream().distinct().count());
+        assertEquals(Puzzles.PATHOLOGICAL[1], sudoku.stringify());
+        assertFalse(sudoku.hasUniqueSolution());
+
+        sudoku.load(Puzzles.HARD[0]);
+        assertTrue(sudoku.hasUniqueSolution());
+        assertEquals(Puzzles.HARD[0], sudoku.stringify());
+    }
+
+    /**
+     * Norvig's puzzle without solution takes this search far too long, so it's stopped from another thread.
+     */
+    @org.junit.jupiter.api.Test
+    void stopSolve() throws InterruptedException {
+        String impossible = "000005080000601043000000000010500000000106000300000005530000061000000004000000000";
+        sudoku.load(impossible);
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            sudoku.stopSolve();
+        });
+        stopper.start();
+        assertFalse(sudoku.solve());
+        stopper.join();
+        assertEquals(impossible, sudoku.stringify());
+    }
+
+    /** A stop that comes before the solve stops it as soon as it starts, until a new board is loaded. */
+    @org.junit.jupiter.api.Test
+    void stopBeforeSolve() {
+        String impossible = "000005080000601043000000000010500000000106000300000005530000061000000004000000000";
+        sudoku.load(impossible);
+        sudoku.stopSolve();
+        assertEquals(SolveResult.Outcome.TIMED_OUT, sudoku.solve(Duration.ofSeconds(30)).outcome());
+
+        sudoku.stopSolve();
+        sudoku.load(Puzzles.HARD[0]);
+        assertTrue(sudoku.solve());
+    }
+
+    /**
+     * Once the search is warmed up, solving allocates nothing.
+     */
+    @org.junit.jupiter.api.Test
+    void noAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < 200; i++) {
+            sudoku.load(Puzzles.EASY[i % Puzzles.EASY.length]);
+            sudoku.solve();
+        }
+
+        sudoku.load(Puzzles.HARD[1]);
+        long before = threads.getThreadAllocatedBytes(id);
+        assertTrue(sudoku.solve());
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+        assertEquals(0, allocated, "solve() allocated " + allocated + " bytes");
+    }
+
+    /** The first row of this puzzle takes the search millions of nodes, so it can't be solved on a small budget. */
+    @org.junit.jupiter.api.Test
+    void nodeBudget() {
+        String puzzle = Puzzles.PATHOLOGICAL[0];
+        sudoku.load(puzzle);
+        SolveResult result = sudoku.solve(10_000);
+        assertEquals(SolveResult.Outcome.TIMED_OUT, result.outcome());
+        assertEquals(10_000, result.nodes());
+        assertEquals(puzzle, sudoku.stringify());
+
+        sudoku.load(Puzzles.EASY[0]);
+        result = sudoku.solve(Long.MAX_VALUE);
+        assertEquals(SolveResult.Outcome.SOLVED, result.outcome());
+        assertTrue(result.nodes() > 0);
+        assertTrue(sudoku.hasUniqueSolution());
+
+        sudoku.clear();
+        for (int c = 0; c < 8; c++)
+            sudoku.setCell(0, c, c + 1);
+        sudoku.setCell(4, 8, 9);
+        assertEquals(SolveResult.Outcome.UNSOLVABLE, sudoku.solve(Long.MAX_VALUE).outcome());
+
+        assertThrows(IllegalArgumentException.class, () -> sudoku.solve(-1));
+    }
+
+    @org.junit.jupiter.api.Test
+    void deadline() {
+        String puzzle = Puzzles.PATHOLOGICAL[0];
+        sudoku.load(puzzle);
+        SolveResult result = sudoku.solve(Duration.ofMillis(20));
+        assertEquals(SolveResult.Outcome.TIMED_OUT, result.outcome());
+        assertTrue(result.elapsed().compareTo(Duration.ofSeconds(1)) < 0, result.toString());
+        assertEquals(puzzle, sudoku.stringify());
+
+        // An expired deadline still lets the search start, but it stops at the first clock check
+        result = sudoku.solve(Duration.ZERO);
+        assertEquals(SolveResult.Outcome.TIMED_OUT, result.outcome());
+        assertEquals(0, result.nodes());
+    }
+}
@@ -0,0 +1,79 @@
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JmxMetricsTest {
+    private JmxMetrics metrics;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        metrics = JmxMetrics.register();
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        JmxMetrics.unregister();
+    }
+
+    @org.junit.jupiter.api.Test
+    void solves() {
+        BitmaskSudoku bitmask = new BitmaskSudoku();
+        bitmask.load(Puzzles.HARD[0]);
+        assertTrue(bitmask.solve());
+        IterativeSudoku iterative = new IterativeSudoku();
+        iterative.load(Puzzles.HARD[0]);
+        assertEquals(SolveResult.Outcome.SOLVED, iterative.solve(Long.MAX_VALUE).outcome());
+
+        assertEquals(2, metrics.getSolves());
+        assertTrue(metrics.getNodes() > 0);
+        assertTrue(metrics.getBacktracks() > 0);
+        assertTrue(metrics.getPropagations() > 0, "Only BitmaskSudoku propagates, but it always does on this puzzle");
+        assertTrue(metrics.getMaxDepth() > 0);
+        assertEquals(1, metrics.latencies("bitmask").count());
+        assertEquals(1, metrics.latencies("iterative").count());
+        assertTrue(metrics.getP99Nanos().get("iterative") > 0);
+
+        metrics.reset();
+        assertEquals(0, metrics.getSolves());
+    }
+
+    @org.junit.jupiter.api.Test
+    void cache() {
+        SolutionCache cache = SolutionCache.inMemory(16);
+        assertNull(cache.get(Puzzles.EASY[0]));
+        Sudoku sudoku = new Sudoku(cache);
+        sudoku.load(Puzzles.EASY[0]);
+        assertTrue(sudoku.solve());
+        sudoku.load(Puzzles.EASY[0]);
+        assertTrue(sudoku.solve());
+
+        assertEquals(1, metrics.getCacheHits());
+        assertEquals(2, metrics.getCacheMisses());
+        assertEquals(1, metrics.getCacheStores());
+        assertEquals(2, metrics.latencies("sudoku").count());
+    }
+
+    /** The numbers can be read over JMX, and nothing is counted once the metrics are unregistered. */
+    @org.junit.jupiter.api.Test
+    void jmx() throws Exception {
+        new DancingLinks().solve();
+        ObjectName name = new ObjectName(JmxMetrics.OBJECT_NAME);
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Solves"));
+        assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MedianNanos"));
+
+        JmxMetrics.unregister();
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        new DancingLinks().solve();
+        assertEquals(1, metrics.getSolves());
+    }
+
+    /** Registering again, like SudokuGUI.start() does when the GUI is started twice, gives the same metrics. */
+    @org.junit.jupiter.api.Test
+    void registerTwice() {
+        assertSame(metrics, JmxMetrics.register());
+        JmxMetrics.unregister();
+        assertNotSame(metrics, JmxMetrics.register());
+    }
+
+}
@@ -0,0 +1,34 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    /** Every value is in the bucket it's mapped to, and the buckets follow each other without gaps. */
+    @org.junit.jupiter.api.Test
+    void buckets() {
+        for (long value : new long[] {0, 1, 63, 64, 65, 1000, 123_456_789, 1L << 40, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.lowest(index) <= value && value <= LatencyHistogram.highest(index), "" + value);
+        }
+        for (int i = 1; i <= LatencyHistogram.index(Long.MAX_VALUE); i++)
+            assertEquals(LatencyHistogram.highest(i - 1) + 1, LatencyHistogram.lowest(i));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highest(LatencyHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @org.junit.jupiter.api.Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(50));
+        for (long nanos = 1; nanos <= 10_000; nanos++)
+            histogram.record(nanos * 1000);
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(5_000_000, histogram.percentile(50), 5_000_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(9_900_000, histogram.percentile(99), 9_900_000 / LatencyHistogram.SUB_BUCKETS);
+        assertTrue(histogram.max() >= 10_000_000);
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+    }
+
+}
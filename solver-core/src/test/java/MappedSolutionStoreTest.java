@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSolutionStoreTest {
+
+    @org.junit.jupiter.api.io.TempDir
+    Path dir;
+
+    /** Returns a packed board that is different for every i. */
+    private static byte[] board(int i) {
+        byte[] board = new byte[MappedSolutionStore.BOARD_SIZE];
+        for (int k = 0; k < 8; k++)
+            board[k] = (byte) (i >>> (k * 4) & 0xF);
+        return board;
+    }
+
+    @org.junit.jupiter.api.Test
+    void getAndPut() throws IOException {
+        try (MappedSolutionStore store = MappedSolutionStore.open(dir.resolve("store"), 10)) {
+            String solution = "5".repeat(81);
+            byte[] a = board(1), b = board(2);
+            assertNull(store.get(a, SolutionCache.fingerprint(a)));
+
+            assertTrue(store.put(a, SolutionCache.fingerprint(a), SolutionCache.pack(solution)));
+            assertTrue(store.put(b, SolutionCache.fingerprint(b), null));
+            assertFalse(store.put(a, SolutionCache.fingerprint(a), null), "Board was stored twice.");
+
+            assertEquals(solution, store.get(a, SolutionCache.fingerprint(a)));
+            assertEquals(SolutionCache.NO_SOLUTION, store.get(b, SolutionCache.fingerprint(b)));
+            assertEquals(2, store.size());
+        }
+    }
+
+    /**
+     * Stores more boards than the first index can hold, and reads them back from a
+     * store that was opened before the index grew.
+     */
+    @org.junit.jupiter.api.Test
+    void grow() throws IOException {
+        Path file = dir.resolve("store");
+        final int COUNT = 3000;
+        try (MappedSolutionStore writer = MappedSolutionStore.open(file, 16);
+             MappedSolutionStore reader = MappedSolutionStore.open(file, 16)) {
+            for (int i = 0; i < COUNT; i++) {
+                byte[] board = board(i);
+                writer.put(board, SolutionCache.fingerprint(board), i % 2 == 0 ? null : board);
+            }
+
+            assertEquals(COUNT, reader.size());
+            for (int i = 0; i < COUNT; i++) {
+                byte[] board = board(i);
+                String solution = reader.get(board, SolutionCache.fingerprint(board));
+                assertEquals(i % 2 == 0 ? SolutionCache.NO_SOLUTION : SolutionCache.unpack(board), solution);
+            }
+        }
+        assertFalse(Files.exists(dir.resolve("store.tmp")));
+    }
+
+    /** Two stores on the same file in this process write from different threads without running into each other's lock. */
+    @org.junit.jupiter.api.Test
+    void sameFileInProcess() throws Exception {
+        Path file = dir.resolve("store");
+        final int COUNT = 2000;
+        try (MappedSolutionStore first = MappedSolutionStore.open(file, 16);
+             MappedSolutionStore second = MappedSolutionStore.open(file, 16)) {
+            Thread other = new Thread(() -> {
+                try {
+                    for (int i = 0; i < COUNT; i += 2)
+                        second.put(board(i), SolutionCache.fingerprint(board(i)), null);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            other.start();
+            for (int i = 1; i < COUNT; i += 2)
+                first.put(board(i), SolutionCache.fingerprint(board(i)), null);
+            other.join();
+            assertEquals(COUNT, first.size());
+        }
+        try (MappedSolutionStore reopened = MappedSolutionStore.open(file, 16)) {
+            assertEquals(COUNT, reopened.size());
+        }
+    }
+
+    /**
+     * A file that isn't a store is not overwritten.
+     */
+    @org.junit.jupiter.api.Test
+    void notAStore() throws IOException {
+        Path file = dir.resolve("table");
+        Files.writeString(file, "0".repeat(81) + " X\n".repeat(100));
+        assertThrows(IOException.class, () -> MappedSolutionStore.open(file, 16));
+    }
+}
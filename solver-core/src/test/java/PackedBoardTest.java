@@ -0,0 +1,83 @@
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedBoardTest {
+
+    @org.junit.jupiter.api.Test
+    void parseAndPrint() {
+        for (String puzzle : Puzzles.HARD) {
+            PackedBoard board = PackedBoard.parse(puzzle);
+            assertEquals(puzzle, board.toString());
+            assertEquals(puzzle, board.subSequence(0, 81).toString());
+            for (int cell = 0; cell < 81; cell++)
+                assertEquals(puzzle.charAt(cell), board.charAt(cell));
+        }
+        assertEquals(PackedBoard.parse("0".repeat(81)), PackedBoard.parse(".".repeat(81)));
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.parse("1".repeat(80)));
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.parse("a" + "0".repeat(80)));
+    }
+
+    /**
+     * The hash only depends on what's on the board, not on the order the cells were set in.
+     */
+    @org.junit.jupiter.api.Test
+    void zobrist() {
+        String puzzle = Puzzles.HARD[0];
+        PackedBoard forward = PackedBoard.parse(puzzle);
+        PackedBoard backward = new PackedBoard();
+        for (int cell = 80; cell >= 0; cell--) {
+            backward.set(cell, 9);
+            backward.set(cell, puzzle.charAt(cell) - '0');
+        }
+        assertEquals(forward.zobrist(), backward.zobrist());
+        assertEquals(forward, backward);
+        assertEquals(forward.hashCode(), backward.hashCode());
+
+        backward.set(0, 0);
+        assertNotEquals(forward.zobrist(), backward.zobrist());
+        backward.clear();
+        assertEquals(new PackedBoard().zobrist(), backward.zobrist());
+
+        Set<Long> hashes = new HashSet<>();
+        for (String p : Puzzles.HARD)
+            assertTrue(hashes.add(PackedBoard.parse(p).zobrist()));
+    }
+
+    @org.junit.jupiter.api.Test
+    void copy() {
+        PackedBoard board = PackedBoard.parse(Puzzles.HARD[1]);
+        PackedBoard copy = new PackedBoard();
+        copy.copyFrom(board);
+        assertEquals(board, copy);
+        assertEquals(board.zobrist(), copy.zobrist());
+
+        copy.set(4, 4, 5);
+        assertEquals(Puzzles.HARD[1], board.toString());
+        assertEquals(5, copy.get(4, 4));
+        assertNotEquals(board, copy);
+    }
+
+    /** toBytes has the same layout as the keys of the cache. */
+    @org.junit.jupiter.api.Test
+    void bytes() {
+        for (String puzzle : Puzzles.HARD) {
+            PackedBoard board = PackedBoard.parse(puzzle);
+            assertArrayEquals(SolutionCache.pack(puzzle), board.toBytes());
+            assertEquals(board, PackedBoard.fromBytes(board.toBytes()));
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void loadIntoSolver() {
+        PackedBoard board = PackedBoard.parse(Puzzles.HARD[2]);
+        BitmaskSudoku sudoku = new BitmaskSudoku();
+        sudoku.load(board);
+        assertEquals(81 - Puzzles.HARD[2].replace("0", "").length(), 81 - board.clues());
+        assertTrue(sudoku.solve());
+        PackedBoard solution = PackedBoard.of(sudoku);
+        assertEquals(sudoku.stringify(), solution.toString());
+        assertEquals(81, solution.clues());
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSudokuTest {
+    private ForkJoinPool pool;
+    private ParallelSudoku sudoku;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        sudoku = new ParallelSudoku(pool, 4);
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        sudoku.clear();
+        pool.shutdown();
+    }
+
+    /**
+     * Tries to solve an empty soduku.
+     */
+    @org.junit.jupiter.api.Test
+    void solveEmpty() {
+        assertTrue(sudoku.solve(), "Empty sudoku board cannot be solved.");
+    }
+
+    /**
+     * Solves the hard puzzles, which all have a single solution, and compares with the sequential search.
+     */
+    @org.junit.jupiter.api.Test
+    void solveHard() {
+        BitmaskSudoku sequential = new BitmaskSudoku();
+        for (String puzzle : Puzzles.HARD) {
+            sudoku.load(puzzle);
+            sequential.load(puzzle);
+            assertTrue(sudoku.solve(), "Sudoku cannot be solved.");
+            assertTrue(sequential.solve());
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++)
+                    assertEquals(sequential.getCell(r, c), sudoku.getCell(r, c));
+            }
+        }
+    }
+
+    /**
+     * A board where the last cell of the first row can't be filled.
+     */
+    @org.junit.jupiter.api.Test
+    void unsolvable() {
+        for (int c = 0; c < 8; c++)
+            sudoku.setCell(0, c, c + 1);
+        sudoku.setCell(4, 8, 9);
+
+        assertFalse(sudoku.solve(), "Unsolvable sudoku was solved.");
+        assertEquals(0, sudoku.getCell(0, 8));
+    }
+
+    /**
+     * A split depth of zero runs the whole search in one task.
+     */
+    @org.junit.jupiter.api.Test
+    void noSplit() {
+        sudoku = new ParallelSudoku(pool, 0);
+        sudoku.load(Puzzles.HARD[0]);
+        assertTrue(sudoku.solve(), "Sudoku cannot be solved.");
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSudoku(pool, -1));
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Boards and answers that the tests check the engines against, next to the puzzles of {@link Puzzles}.
+ * Also used by the tests of the other modules, through the test-jar of this module.
+ */
+final class PuzzleFixtures {
+
+    /** A board without solution that breaks no rule yet: the last cell of the first row can only be a 9,
+     *  and there is a 9 further down its column. */
+    static final String UNSOLVABLE = "123456780" + "0".repeat(36) + "000000009" + "0".repeat(27);
+
+    private PuzzleFixtures() {}
+
+    /** Solves the puzzle with {@link BitmaskSudoku}, which the other engines are checked against.
+     *  @return the solution, or null if the puzzle has none. */
+    static String solutionOf(String puzzle) {
+        BitmaskSudoku sudoku = new BitmaskSudoku();
+        sudoku.load(puzzle);
+        return sudoku.solve() ? sudoku.stringify() : null;
+    }
+
+}
@@ -0,0 +1,99 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleGeneratorTest {
+    private PuzzleGenerator generator;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        generator = new PuzzleGenerator(42);
+    }
+
+    private static int clues(String puzzle) {
+        int clues = 0;
+        for (int i = 0; i < 81; i++) {
+            if (puzzle.charAt(i) != '0')
+                clues++;
+        }
+        return clues;
+    }
+
+    private static void assertUnique(String puzzle) {
+        BitmaskSudoku sudoku = new BitmaskSudoku();
+        sudoku.load(puzzle);
+        assertTrue(sudoku.hasUniqueSolution(), puzzle);
+    }
+
+    /** No clue can be removed from a generated puzzle without giving it more solutions. */
+    @org.junit.jupiter.api.Test
+    void minimal() {
+        for (int i = 0; i < 10; i++) {
+            String puzzle = generator.generate();
+            assertUnique(puzzle);
+            BitmaskSudoku sudoku = new BitmaskSudoku();
+            for (int cell = 0; cell < 81; cell++) {
+                if (puzzle.charAt(cell) == '0')
+                    continue;
+                sudoku.load(puzzle.substring(0, cell) + "0" + puzzle.substring(cell + 1));
+                assertEquals(2, sudoku.countSolutions(2), "Clue " + cell + " of " + puzzle + " can be removed");
+            }
+        }
+    }
+
+    @org.junit.jupiter.api.Test
+    void clues() {
+        for (int target : new int[] {25, 30, 40, 81}) {
+            String puzzle = generator.generate(target);
+            assertEquals(target, clues(puzzle));
+            assertUnique(puzzle);
+        }
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(16));
+    }
+
+    @org.junit.jupiter.api.Test
+    void difficulty() {
+        for (PuzzleGenerator.Difficulty difficulty : PuzzleGenerator.Difficulty.values()) {
+            String puzzle = generator.generate(difficulty);
+            assertEquals(difficulty, generator.difficulty(), puzzle);
+            assertUnique(puzzle);
+        }
+
+        // Without guesses, propagation alone solves the puzzle
+        String easy = generator.generate(PuzzleGenerator.Difficulty.EASY);
+        BitmaskSudoku sudoku = new BitmaskSudoku();
+        sudoku.load(easy);
+        assertTrue(sudoku.propagate());
+        assertEquals(-1, sudoku.mostConstrainedCell());
+    }
+
+    /** The same seed gives the same puzzles, whatever the number of threads. */
+    @org.junit.jupiter.api.Test
+    void parallel() {
+        String[] puzzles = PuzzleGenerator.generate(100, 30, null, 7);
+        assertEquals(100, puzzles.length);
+        for (String puzzle : puzzles) {
+            assertEquals(30, clues(puzzle));
+            assertUnique(puzzle);
+        }
+        assertArrayEquals(puzzles, PuzzleGenerator.generate(100, 30, null, 7));
+        assertEquals(100, Arrays.stream(puzzles).distinct().count());
+    }
+
+    /** Once warmed up, a generator only allocates the puzzle it returns. */
+    @org.junit.jupiter.api.Test
+    void allocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < 100; i++)
+            generator.generate();
+
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 20; i++)
+            generator.generate();
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+        assertTrue(allocated < 20 * 256, "generate() allocated " + allocated + " bytes for 20 puzzles");
+    }
+
+}
@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCacheTest {
+
+    private static final String BOARD =
+            "008009062000000005102500000000210090050000600600000028410608000860030100000000400";
+    private static final String SOLUTION =
+            "548179362376824915192563874784216593259387641631945728415698237867432159923751486";
+
+    @org.junit.jupiter.api.io.TempDir
+    Path dir;
+
+    /**
+     * Boards are packed two cells per byte and can be unpacked again.
+     */
+    @org.junit.jupiter.api.Test
+    void pack() {
+        byte[] packed = SolutionCache.pack(BOARD);
+        assertEquals(41, packed.length);
+        assertEquals(BOARD, SolutionCache.unpack(packed));
+    }
+
+    @org.junit.jupiter.api.Test
+    void getAndPut() {
+        SolutionCache cache = SolutionCache.inMemory(10);
+        assertNull(cache.get(BOARD));
+
+        cache.put(BOARD, SOLUTION);
+        assertEquals(SOLUTION, cache.get(BOARD));
+
+        cache.put(PuzzleFixtures.UNSOLVABLE, null);
+        assertEquals(SolutionCache.NO_SOLUTION, cache.get(PuzzleFixtures.UNSOLVABLE));
+
+        assertNull(cache.get("not a board"));
+        assertThrows(IllegalArgumentException.class, () -> cache.put("not a board", SOLUTION));
+    }
+
+    /**
+     * The least recently used board is evicted when the cache is full.
+     */
+    @org.junit.jupiter.api.Test
+    void evictLeastRecentlyUsed() {
+        SolutionCache cache = SolutionCache.inMemory(2);
+        String a = "1" + "0".repeat(80), b = "2" + "0".repeat(80), c = "3" + "0".repeat(80);
+        cache.put(a, null);
+        cache.put(b, null);
+        cache.get(a);
+        cache.put(c, null);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b), "Least recently used board was not evicted.");
+        assertNotNull(cache.get(c));
+    }
+
+    /**
+     * A board is only written to the store once, and is found when the store is opened again.
+     */
+    @org.junit.jupiter.api.Test
+    void dedupeOnWrite() throws IOException {
+        Path table = dir.resolve("solutions/table");
+        SolutionCache cache = SolutionCache.open(table, 10);
+        cache.put(BOARD, SOLUTION);
+        cache.put(BOARD, SOLUTION);
+        assertEquals(1, cache.size());
+
+        // Once it's in the store, the board isn't added to the journal again
+        Path journal = dir.resolve("solutions/table" + SolutionCache.JOURNAL_SUFFIX);
+        long size = Files.size(journal);
+        cache.put(BOARD, SOLUTION);
+        cache.flush();
+        assertEquals(size, Files.size(journal));
+
+        assertEquals(SOLUTION, SolutionCache.open(table, 10).get(BOARD));
+    }
+
+    /** Boards are kept in memory until the store is open in the background, and in the store after. */
+    @org.junit.jupiter.api.Test
+    void openInBackground() throws Exception {
+        Path table = dir.resolve("solutions/table");
+        SolutionCache cache = SolutionCache.openInBackground(table, 10);
+        cache.put(BOARD, SOLUTION);
+        assertEquals(SOLUTION, cache.get(BOARD));
+
+        cache.opened().get(10, java.util.concurrent.TimeUnit.SECONDS);
+        cache.put(PuzzleFixtures.UNSOLVABLE, null);
+        // The board is written behind, so it's only in the store once it's flushed
+        cache.flush();
+
+        // The second cache on the table has no journal of its own, so it writes straight to the store
+        SolutionCache reopened = SolutionCache.open(table, 10);
+        assertEquals(SolutionCache.NO_SOLUTION, reopened.get(PuzzleFixtures.UNSOLVABLE));
+        reopened.put(BOARD, SOLUTION);
+        assertEquals(2, cache.size());
+        reopened.close();
+        cache.close();
+        assertEquals(8, Files.size(dir.resolve("solutions/table" + SolutionCache.JOURNAL_SUFFIX)));
+        assertTrue(SolutionCache.inMemory(10).opened().isDone());
+    }
+
+    /**
+     * The text table is imported into a new store, except for duplicated lines
+     * and lines that break the rules of sudoku.
+     */
+    @org.junit.jupiter.api.Test
+    void importTable() throws IOException {
+        Path table = dir.resolve("table");
+        String wrongSolution = "0".repeat(81);
+        String brokenBoard = "11" + "0".repeat(79);
+        Files.write(table, List.of(
+                BOARD + " " + SOLUTION,
+                BOARD + " " + SOLUTION,
+                "1" + "0".repeat(80) + " " + wrongSolution,
+                brokenBoard + " X"));
+
+        SolutionCache cache = SolutionCache.open(table, 10);
+        assertEquals(1, cache.size());
+        assertEquals(SOLUTION, cache.get(BOARD));
+        assertNull(cache.get(brokenBoard));
+        assertTrue(Files.exists(dir.resolve("table" + SolutionCache.STORE_SUFFIX)));
+    }
+
+    /** Threads that put and get different boards at the same time see their own solutions. */
+    @org.junit.jupiter.api.Test
+    void concurrentPutAndGet() throws Exception {
+        SolutionCache cache = SolutionCache.inMemory(10_000);
+        List<String> solutions = new ArrayList<>();
+        for (String puzzle : Puzzles.HARD)
+            solutions.add(PuzzleFixtures.solutionOf(puzzle));
+
+        Thread[] threads = new Thread[4];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int round = 0; round < 200; round++) {
+                        for (int i = 0; i < Puzzles.HARD.length; i++) {
+                            cache.put(Puzzles.HARD[i], solutions.get(i));
+                            assertEquals(solutions.get(i), cache.get(Puzzles.HARD[i]));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertNull(failure.get());
+        assertEquals(Puzzles.HARD.length, cache.size());
+    }
+}
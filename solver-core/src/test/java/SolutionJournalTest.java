@@ -0,0 +1,143 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionJournalTest {
+
+    @org.junit.jupiter.api.io.TempDir
+    Path dir;
+
+    private Path journalFile;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        journalFile = dir.resolve("table" + SolutionCache.JOURNAL_SUFFIX);
+    }
+
+    private static String get(MappedSolutionStore store, String board) throws IOException {
+        byte[] packed = SolutionCache.pack(board);
+        return store.get(packed, SolutionCache.fingerprint(packed));
+    }
+
+    private SolutionJournal journal(MappedSolutionStore store) throws IOException {
+        return SolutionJournal.open(journalFile, store, null);
+    }
+
+    /** Copies the journal as it is on disk, like it would be found after a crash. */
+    private Path crash() throws IOException {
+        Path copy = dir.resolve("crashed" + SolutionCache.JOURNAL_SUFFIX);
+        Files.copy(journalFile, copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    /** The journal alone is enough to get the boards back, if the store is lost in a crash. */
+    @org.junit.jupiter.api.Test
+    void replay() throws Exception {
+        MappedSolutionStore store = MappedSolutionStore.open(dir.resolve("first.db"), 16);
+        SolutionJournal journal = SolutionJournal.open(journalFile, store, Duration.ZERO);
+        journal.append(SolutionCache.pack(Puzzles.HARD[0]), SolutionCache.pack(PuzzleFixtures.solutionOf(Puzzles.HARD[0])));
+        journal.append(SolutionCache.pack(PuzzleFixtures.UNSOLVABLE), null);
+        journal.flush();
+        assertEquals(PuzzleFixtures.solutionOf(Puzzles.HARD[0]), get(store, Puzzles.HARD[0]));
+        Path crashed = crash();
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.append(SolutionCache.pack(PuzzleFixtures.UNSOLVABLE), null));
+
+        MappedSolutionStore fresh = MappedSolutionStore.open(dir.resolve("second.db"), 16);
+        SolutionJournal replayed = SolutionJournal.open(crashed, fresh, null);
+        assertEquals(PuzzleFixtures.solutionOf(Puzzles.HARD[0]), get(fresh, Puzzles.HARD[0]));
+        assertEquals(SolutionCache.NO_SOLUTION, get(fresh, PuzzleFixtures.UNSOLVABLE));
+        assertEquals(2, fresh.size());
+        replayed.close();
+    }
+
+    /** A record that was only half written, or was damaged, and everything after it, is not replayed. */
+    @org.junit.jupiter.api.Test
+    void tornTail() throws Exception {
+        SolutionJournal journal = journal(MappedSolutionStore.open(dir.resolve("first.db"), 16));
+        for (String puzzle : new String[] {Puzzles.HARD[0], Puzzles.HARD[1], Puzzles.HARD[2]})
+            journal.append(SolutionCache.pack(puzzle), SolutionCache.pack(PuzzleFixtures.solutionOf(puzzle)));
+        journal.flush();
+        Path crashed = crash();
+        journal.close();
+        long size = Files.size(crashed);
+        assertEquals(8 + 3 * SolutionJournal.RECORD_SIZE, size);
+
+        try (FileChannel channel = FileChannel.open(crashed, StandardOpenOption.WRITE)) {
+            // Flips a byte of the last record, and adds half a record after it
+            channel.write(ByteBuffer.wrap(new byte[] {0x7F}), size - 10);
+            channel.write(ByteBuffer.wrap(new byte[SolutionJournal.RECORD_SIZE / 2]), size);
+        }
+
+        MappedSolutionStore store = MappedSolutionStore.open(dir.resolve("second.db"), 16);
+        SolutionJournal replayed = SolutionJournal.open(crashed, store, null);
+        assertEquals(2, store.size());
+        assertNull(get(store, Puzzles.HARD[2]));
+        // What was replayed is in the store, so the journal starts over
+        assertEquals(8, replayed.size());
+        replayed.close();
+    }
+
+    /** Once the journal is large enough, the store is forced and the journal emptied, so it never grows
+     *  with the number of boards, and opening it replays nothing that is already in the store. */
+    @org.junit.jupiter.api.Test
+    void checkpoint() throws Exception {
+        MappedSolutionStore store = MappedSolutionStore.open(dir.resolve("table.db"), 16);
+        SolutionJournal journal = journal(store);
+        long records = SolutionJournal.CHECKPOINT_SIZE / SolutionJournal.RECORD_SIZE + 10;
+        for (long i = 0; i < records; i++) {
+            byte[] board = new byte[MappedSolutionStore.BOARD_SIZE];
+            for (int k = 0; k < 8; k++)
+                board[k] = (byte) (i >>> (k * 4) & 0xF);
+            journal.append(board, null);
+        }
+        journal.flush();
+        assertTrue(journal.size() < SolutionJournal.CHECKPOINT_SIZE, "No checkpoint: " + journal.size());
+        assertEquals(records, store.size());
+
+        journal.append(SolutionCache.pack(PuzzleFixtures.UNSOLVABLE), null);
+        journal.close();
+        assertEquals(8, Files.size(journalFile));
+        assertEquals(SolutionCache.NO_SOLUTION, get(store, PuzzleFixtures.UNSOLVABLE));
+
+        MappedSolutionStore fresh = MappedSolutionStore.open(dir.resolve("fresh.db"), 16);
+        journal(fresh).close();
+        assertEquals(0, fresh.size());
+    }
+
+    /** An interrupted close still writes everything, lets go of the file, and keeps the interrupt. */
+    @org.junit.jupiter.api.Test
+    void interruptedClose() throws Exception {
+        MappedSolutionStore store = MappedSolutionStore.open(dir.resolve("table.db"), 16);
+        SolutionJournal journal = journal(store);
+        for (int i = 0; i < 100; i++)
+            journal.append(SolutionCache.pack(Puzzles.HARD[i % 3]), null);
+
+        Thread.currentThread().interrupt();
+        journal.close();
+        assertTrue(Thread.interrupted());
+        assertEquals(3, store.size());
+        journal(store).close();
+    }
+
+    /** Only one journal is open on a file at a time. */
+    @org.junit.jupiter.api.Test
+    void locked() throws Exception {
+        MappedSolutionStore store = MappedSolutionStore.open(dir.resolve("table.db"), 16);
+        SolutionJournal journal = journal(store);
+        assertThrows(IOException.class, () -> journal(store));
+        journal.close();
+        journal(store).close();
+
+        Files.write(journalFile, new byte[100]);
+        assertThrows(IOException.class, () -> journal(store));
+    }
+
+}
@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverCliTest {
+    private Path input, output;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() throws IOException {
+        input = Files.createTempFile("puzzles", ".txt");
+        output = Files.createTempFile("solutions", ".txt");
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @org.junit.jupiter.api.Test
+    void solveFile() throws Exception {
+        String dotted = Puzzles.EASY[0].replace('0', '.');
+        Files.writeString(input, Puzzles.HARD[0] + "\n\n" + dotted + "\r\n" + PuzzleFixtures.UNSOLVABLE + "\n"
+                + "11" + "0".repeat(79) + "\n" + "too short\n" + Puzzles.HARD[1], StandardCharsets.US_ASCII);
+
+        SolverCli.Report report = SolverCli.solve(input, output, 2);
+        assertEquals(List.of(PuzzleFixtures.solutionOf(Puzzles.HARD[0]), PuzzleFixtures.solutionOf(Puzzles.EASY[0]), "X", "X", "X",
+                PuzzleFixtures.solutionOf(Puzzles.HARD[1])), Files.readAllLines(output));
+        assertEquals(6, report.puzzles);
+        assertEquals(3, report.solved);
+        assertEquals(6, report.latencies.count());
+        assertTrue(report.toString().contains("p99"));
+    }
+
+    /** Lines that cross the end of a mapped window, and many chunks, still come out in order. */
+    @org.junit.jupiter.api.Test
+    void manyWindows() throws Exception {
+        List<String> puzzles = new ArrayList<>(), expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            puzzles.add(Puzzles.HARD[i % Puzzles.HARD.length]);
+            expected.add(PuzzleFixtures.solutionOf(Puzzles.HARD[i % Puzzles.HARD.length]));
+        }
+        Files.write(input, puzzles, StandardCharsets.US_ASCII);
+
+        SolverCli.Report report = SolverCli.solve(input, output, 3, 1000);
+        assertEquals(expected, Files.readAllLines(output));
+        assertEquals(5000, report.solved);
+
+        assertThrows(IOException.class, () -> SolverCli.solve(input, output, 1, 50));
+    }
+
+}
@@ -0,0 +1,59 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverPoolTest {
+
+    @org.junit.jupiter.api.Test
+    void releaseClears() throws Exception {
+        SolverPool<BitmaskSudoku> pool = new SolverPool<>(BitmaskSudoku::new, 1);
+        BitmaskSudoku solver = pool.take();
+        assertEquals(0, pool.available());
+        solver.load(Puzzles.EASY[0]);
+        pool.release(solver);
+
+        assertEquals(1, pool.available());
+        assertSame(solver, pool.take());
+        assertEquals("0".repeat(81), solver.stringify());
+        pool.release(solver);
+        assertThrows(IllegalStateException.class, () -> pool.release(new BitmaskSudoku()));
+    }
+
+    /** More threads than solvers, every one solving all the easy puzzles with its own board,
+     *  and all the solvers filling and reading the same cache. */
+    @org.junit.jupiter.api.Test
+    void solveOnManyThreads() throws Exception {
+        SolutionCache cache = SolutionCache.inMemory(1000);
+        SolverPool<SudokuSolver> pool = new SolverPool<>(() -> new Sudoku(cache), 3);
+        List<String> expected = new ArrayList<>();
+        for (String puzzle : Puzzles.EASY)
+            expected.add(PuzzleFixtures.solutionOf(puzzle));
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(threads.submit(() -> {
+                    List<String> solutions = new ArrayList<>();
+                    for (String puzzle : Puzzles.EASY) {
+                        solutions.add(pool.apply(solver -> {
+                            solver.load(puzzle);
+                            assertTrue(solver.solve());
+                            return solver.stringify();
+                        }));
+                    }
+                    return solutions;
+                }));
+            }
+            for (Future<List<String>> result : results)
+                assertEquals(expected, result.get(60, TimeUnit.SECONDS));
+        } finally {
+            threads.shutdownNow();
+        }
+        assertEquals(3, pool.available());
+        assertEquals(Puzzles.EASY.length, cache.size());
+    }
+
+}
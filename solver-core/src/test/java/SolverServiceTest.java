@@ -0,0 +1,152 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverServiceTest {
+
+    /** An engine that doesn't solve anything until it's let go. */
+    private static class HeldSudoku extends BitmaskSudoku {
+        static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+        @Override
+        public SolveResult solve(long nodeBudget) {
+            try {
+                RELEASE.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.solve(nodeBudget);
+        }
+    }
+
+    private SolverService service;
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        if (service != null)
+            service.close();
+    }
+
+    @org.junit.jupiter.api.Test
+    void solvesConcurrently() throws Exception {
+        service = new SolverService(BitmaskSudoku::new, 2, 1000, null, false);
+        List<CompletableFuture<SolveResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            futures.add(service.submit(Puzzles.HARD[i % Puzzles.HARD.length]));
+
+        for (int i = 0; i < futures.size(); i++) {
+            SolveResult result = futures.get(i).get(30, TimeUnit.SECONDS);
+            assertEquals(SolveResult.Outcome.SOLVED, result.outcome());
+            assertEquals(PuzzleFixtures.solutionOf(Puzzles.HARD[i % Puzzles.HARD.length]), result.solution());
+        }
+        assertEquals(0, service.pending());
+    }
+
+    @org.junit.jupiter.api.Test
+    void cache() throws Exception {
+        service = new SolverService(IterativeSudoku::new, 1, 10, SolutionCache.inMemory(16), false);
+        SolveResult first = service.submit(Puzzles.EASY[0]).get(10, TimeUnit.SECONDS);
+        assertTrue(first.nodes() > 0);
+
+        // The solution is stored in the background, so the second request may still miss the cache
+        SolveResult second = first;
+        for (int i = 0; i < 100 && second.nodes() > 0; i++) {
+            Thread.sleep(10);
+            second = service.submit(Puzzles.EASY[0]).get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(0, second.nodes());
+        assertEquals(first.solution(), second.solution());
+
+        assertEquals(SolveResult.Outcome.UNSOLVABLE, service.submit(PuzzleFixtures.UNSOLVABLE).get(10, TimeUnit.SECONDS).outcome());
+    }
+
+    /** Puzzles with '.' for empty cells are solved, stored and found in the cache like any other. */
+    @org.junit.jupiter.api.Test
+    void dottedPuzzle() throws Exception {
+        SolutionCache cache = SolutionCache.inMemory(16);
+        service = new SolverService(BitmaskSudoku::new, 1, 10, cache, false);
+        String dotted = Puzzles.HARD[0].replace('0', '.');
+        SolveResult first = service.submit(dotted).get(10, TimeUnit.SECONDS);
+        assertEquals(PuzzleFixtures.solutionOf(Puzzles.HARD[0]), first.solution());
+
+        for (int i = 0; i < 100 && cache.get(Puzzles.HARD[0]) == null; i++)
+            Thread.sleep(10);
+        assertEquals(first.solution(), cache.get(Puzzles.HARD[0]));
+        SolveResult second = service.submit(dotted).get(10, TimeUnit.SECONDS);
+        assertEquals(0, second.nodes());
+        assertEquals(first.solution(), second.solution());
+    }
+
+    @org.junit.jupiter.api.Test
+    void backpressure() throws Exception {
+        service = new SolverService(HeldSudoku::new, 1, 2, null, false);
+        CompletableFuture<SolveResult> first = service.submit(Puzzles.EASY[0]);
+        CompletableFuture<SolveResult> second = service.submit(Puzzles.EASY[1]);
+        CompletableFuture<SolveResult> rejected = service.submit(Puzzles.EASY[2]);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(2, service.pending());
+
+        HeldSudoku.RELEASE.countDown();
+        assertTrue(first.get(10, TimeUnit.SECONDS).isSolved());
+        assertTrue(second.get(10, TimeUnit.SECONDS).isSolved());
+    }
+
+    /** Cancelling stops the search, or the only solver would be busy with this puzzle for about ten seconds. */
+    @org.junit.jupiter.api.Test
+    void cancel() throws Exception {
+        service = new SolverService(() -> new Sudoku(SolutionCache.inMemory(0)), 1, 10, null, false);
+        CompletableFuture<SolveResult> slow = service.submit(Puzzles.PATHOLOGICAL[0]);
+        Thread.sleep(50);
+        assertTrue(slow.cancel(true));
+
+        assertTrue(service.submit(Puzzles.EASY[0]).get(3, TimeUnit.SECONDS).isSolved());
+    }
+
+    /** A cancel that comes while the puzzle is loaded, before the search has started, isn't lost. */
+    @org.junit.jupiter.api.Test
+    void cancelBeforeSearch() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1), cancelled = new CountDownLatch(1);
+        service = new SolverService(() -> new Sudoku(null) {
+            @Override
+            public void load(CharSequence puzzle) {
+                super.load(puzzle);
+                loaded.countDown();
+                try {
+                    cancelled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 1, 10, null, false);
+        CompletableFuture<SolveResult> slow = service.submit(Puzzles.PATHOLOGICAL[0]);
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+        assertTrue(slow.cancel(true));
+        cancelled.countDown();
+
+        assertTrue(service.submit(Puzzles.EASY[0]).get(3, TimeUnit.SECONDS).isSolved());
+    }
+
+    @org.junit.jupiter.api.Test
+    void deadline() throws Exception {
+        service = new SolverService(IterativeSudoku::new, 1, 10, null, false);
+        SolveResult result = service.submit(Puzzles.PATHOLOGICAL[0], Duration.ofMillis(50)).get(10, TimeUnit.SECONDS);
+        assertEquals(SolveResult.Outcome.TIMED_OUT, result.outcome());
+        assertNull(result.solution());
+    }
+
+    @org.junit.jupiter.api.Test
+    void invalidPuzzle() {
+        service = new SolverService(BitmaskSudoku::new, 1, 10, null, false);
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> service.submit("11" + "0".repeat(79)).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+        service.close();
+        assertThrows(IllegalStateException.class, () -> service.submit(Puzzles.EASY[0]));
+    }
+
+}
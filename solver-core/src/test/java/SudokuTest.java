@@ -0,0 +1,210 @@
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SudokuTest {
+    private SudokuSolver sudoku;
+
+    @org.junit.jupiter.api.BeforeEach
+    void setUp() {
+        sudoku = new Sudoku();
+    }
+
+    @org.junit.jupiter.api.AfterEach
+    void tearDown() {
+        sudoku.clear();
+    }
+
+    /**
+     * Tries to solve an empty soduku.
+     */
+    @org.junit.jupiter.api.Test
+    void solveEmpty() {
+        assertTrue(sudoku.solve(), "Empty sudoku board cannot be solved.");
+    }
+
+    /**
+     * Tries to set a cell that breaks the rule of Sudoku that states that two identical numbers
+     * cannot be put in the same column.
+     */
+    @org.junit.jupiter.api.Test
+    void throwableCellSameRow() {
+        sudoku.setCell(1,1,3);
+        assertThrows(IllegalArgumentException.class,() -> sudoku.setCell(1,2, 3));
+    }
+
+    /**
+     * Tries to set a cell that breaks the rule of Sudoku that states that two identical numbers
+     * cannot be put in the same row.
+     */
+    @org.junit.jupiter.api.Test
+    void throwableCellSameCol() {
+        sudoku.setCell(1,1,3);
+        assertThrows(IllegalArgumentException.class,() ->
+                sudoku.setCell(2,1, 3));
+    }
+
+    /**
+     * Tests if it is possible to put two identical numbers in the same region and
+     * asserts it is possible to do so in two different ones.
+     */
+    @org.junit.jupiter.api.Test
+    void getThrowableCellSameRegion(){
+        sudoku.setCell(1, 1, 6);
+        sudoku.setCell(5, 4, 6);
+        assertEquals(6, sudoku.getCell(5, 4));
+        assertThrows(IllegalArgumentException.class, () ->
+                sudoku.setCell(0, 2, 6));
+    }
+
+    /**
+     * Asserts that a cell can be given a value between 1-9. The cell cannot be out of bounds.
+     */
+    @org.junit.jupiter.api.Test
+    void setCell() {
+        sudoku.setCell(1,1, 6);
+        assertEquals(6, sudoku.getCell(1, 1), "Fel värde i rutan.");
+    }
+
+    /**
+     * Asserts that an attempt to assign a value to a cell that is out of bounds generates an
+     * IllegalArgumentException.
+     */
+    @org.junit.jupiter.api.Test
+    void setCellOutOfBounds(){
+        assertThrows(IllegalArgumentException.class, () ->
+                sudoku.setCell(10, 3, 7)
+        );
+    }
+
+
+    @org.junit.jupiter.api.Test
+    void getCell() {
+        sudoku.setCell(3, 3 , 7);
+        assertEquals(7, sudoku.getCell(3,3), "setCell() does not work.");
+    }
+
+    @org.junit.jupiter.api.Test
+    void testFig1() {
+        sudoku.setCell(0, 2, 8);
+        sudoku.setCell(0, 5, 9);
+        sudoku.setCell(0, 7, 6);
+        sudoku.setCell(0, 8, 2);
+        sudoku.setCell(1, 8, 5);
+        sudoku.setCell(2, 0, 1);
+        sudoku.setCell(2, 2, 2);
+        sudoku.setCell(2, 3, 5);
+        sudoku.setCell(3, 3, 2);
+        sudoku.setCell(3, 4, 1);
+        sudoku.setCell(3, 7, 9);
+        sudoku.setCell(4, 1, 5);
+        sudoku.setCell(4, 6, 6);
+        sudoku.setCell(5, 0, 6);
+        sudoku.setCell(5, 7, 2);
+        sudoku.setCell(5, 8, 8);
+        sudoku.setCell(6, 0, 4);
+        sudoku.setCell(6, 1, 1);
+        sudoku.setCell(6, 3, 6);
+        sudoku.setCell(6, 5, 8);
+        sudoku.setCell(7, 0, 8);
+        sudoku.setCell(7, 1, 6);
+        sudoku.setCell(7, 4, 3);
+        sudoku.setCell(7, 6, 1);
+        sudoku.setCell(8, 6, 4);
+        sudoku.toString();
+
+        boolean flag = sudoku.solve();
+            assertTrue(flag, "Sudoku cannot be solved.");
+
+    }
+
+    /**
+     * Asserts that the board of fig 1 has exactly one solution, and that removing
+     * clues gives more solutions.
+     */
+    @org.junit.jupiter.api.Test
+    void uniqueSolution() {
+        sudoku.setCell(0, 2, 8);
+        sudoku.setCell(0, 5, 9);
+        sudoku.setCell(0, 7, 6);
+        sudoku.setCell(0, 8, 2);
+        sudoku.setCell(1, 8, 5);
+        sudoku.setCell(2, 0, 1);
+        sudoku.setCell(2, 2, 2);
+        sudoku.setCell(2, 3, 5);
+        sudoku.setCell(3, 3, 2);
+        sudoku.setCell(3, 4, 1);
+        sudoku.setCell(3, 7, 9);
+        sudoku.setCell(4, 1, 5);
+        sudoku.setCell(4, 6, 6);
+        sudoku.setCell(5, 0, 6);
+        sudoku.setCell(5, 7, 2);
+        sudoku.setCell(5, 8, 8);
+        sudoku.setCell(6, 0, 4);
+        sudoku.setCell(6, 1, 1);
+        sudoku.setCell(6, 3, 6);
+        sudoku.setCell(6, 5, 8);
+        sudoku.setCell(7, 0, 8);
+        sudoku.setCell(7, 1, 6);
+        sudoku.setCell(7, 4, 3);
+        sudoku.setCell(7, 6, 1);
+        assertEquals(2, sudoku.countSolutions(2), "Board without (8, 6) has several solutions.");
+
+        sudoku.setCell(8, 6, 4);
+        assertTrue(sudoku.hasUniqueSolution(), "Sudoku does not have a unique solution.");
+        assertEquals(0, sudoku.getCell(8, 8), "Counting solutions changed the board.");
+    }
+
+    /**
+     * Asserts that solveMultiple hands out at most limit solutions, all of them different.
+     */
+    @org.junit.jupiter.api.Test
+    void solveMultiple() {
+        java.util.Set<String> solutions = new java.util.HashSet<>();
+        int count = sudoku.solveMultiple(5, solver -> {
+            StringBuilder sb = new StringBuilder();
+            for (int r = 0; r < 9; r++) {
+                for (int c = 0; c < 9; c++)
+                    sb.append(solver.getCell(r, c));
+            }
+            solutions.add(sb.toString());
+        });
+        assertEquals(5, count);
+        assertEquals(5, solutions.size(), "The same solution was found twice.");
+    }
+
+    /** A solve that runs out of budget says nothing about the board, so it must not end up in the cache. */
+    @org.junit.jupiter.api.Test
+    void nodeBudget() {
+        SolutionCache cache = SolutionCache.inMemory(16);
+        Sudoku bounded = new Sudoku(cache);
+        bounded.load(Puzzles.PATHOLOGICAL[0]);
+        SolveResult result = bounded.solve(10_000);
+        assertEquals(SolveResult.Outcome.TIMED_OUT, result.outcome());
+        assertEquals(10_000, result.nodes());
+        assertEquals(Puzzles.PATHOLOGICAL[0], bounded.stringify());
+        assertNull(cache.get(Puzzles.PATHOLOGICAL[0]));
+
+        bounded.load(Puzzles.EASY[1]);
+        assertTrue(bounded.solve(Duration.ofSeconds(10)).isSolved());
+        assertNotNull(cache.get(Puzzles.EASY[1]));
+
+        // The second time the solution comes from the cache, without a search
+        bounded.load(Puzzles.EASY[1]);
+        result = bounded.solve(0);
+        assertEquals(SolveResult.Outcome.SOLVED, result.outcome());
+        assertEquals(0, result.nodes());
+    }
+
+    /** Without a cache every solve is a search, and nothing touches the file system. */
+    @org.junit.jupiter.api.Test
+    void noCache() {
+        Sudoku uncached = new Sudoku(null);
+        for (int i = 0; i < 2; i++) {
+            uncached.load(Puzzles.EASY[1]);
+            SolveResult result = uncached.solve(Long.MAX_VALUE);
+            assertTrue(result.isSolved());
+            assertTrue(result.nodes() > 0);
+        }
+    }
+}